@@ -0,0 +1,14 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("nba.coalescing")
+public record CoalescingConfiguration(
+    @Bindable(defaultValue = "true") boolean enabled,
+    @Bindable(defaultValue = "5ms") Duration flushInterval,
+    @Bindable(defaultValue = "1000") int maxBufferSize,
+    @Bindable(defaultValue = "true") boolean flushOnShutdown) {
+}
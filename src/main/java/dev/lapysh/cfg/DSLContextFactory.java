@@ -1,8 +1,10 @@
 package dev.lapysh.cfg;
 
 
-import dev.lapysh.init.PlayerStatisticsMapStore;
-import dev.lapysh.init.TeamStatisticsMapStore;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.init.CareerMapLoader;
+import dev.lapysh.init.IngestedLinesMapLoader;
+import dev.lapysh.init.SeasonStatisticsMapStore;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Value;
 import io.r2dbc.pool.ConnectionPool;
@@ -54,11 +56,17 @@ public class DSLContextFactory {
 
     @Singleton
     @Named("r2dbcPooledDslContext")
-    public DSLContext dslContext(@Named("r2dbcPooledConnectionFactory") ConnectionFactory connectionFactory) {
+    public DSLContext dslContext(@Named("r2dbcPooledConnectionFactory") ConnectionFactory connectionFactory,
+                                 SnapshotConfiguration snapshotConfiguration,
+                                 DedupConfiguration dedupConfiguration,
+                                 StageMetrics stageMetrics) {
         var dslContext = DSL.using(connectionFactory);
         // Hack to provide dependency to unmanaged bean
-        PlayerStatisticsMapStore.setDsl(dslContext);
-        TeamStatisticsMapStore.setDsl(dslContext);
+        SeasonStatisticsMapStore.setDsl(dslContext);
+        SeasonStatisticsMapStore.setSnapshots(snapshotConfiguration);
+        SeasonStatisticsMapStore.setMetrics(stageMetrics);
+        IngestedLinesMapLoader.setDsl(dslContext, dedupConfiguration);
+        CareerMapLoader.setDsl(dslContext);
         return dslContext;
     }
 }
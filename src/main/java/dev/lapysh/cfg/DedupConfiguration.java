@@ -0,0 +1,14 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("nba.dedup")
+public record DedupConfiguration(
+    @Bindable(defaultValue = "true") boolean enabled,
+    @Bindable(defaultValue = "100000") long expectedLinesPerSeason,
+    @Bindable(defaultValue = "0.01") double falsePositiveRate,
+    @Bindable(defaultValue = "1m") Duration reservationTimeout) {
+}
@@ -0,0 +1,55 @@
+package dev.lapysh.cfg;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizePolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Replaces;
+import jakarta.inject.Singleton;
+
+import java.util.List;
+
+/**
+ * The Hazelcast member, configured by {@code hazelcast.xml} plus the near cache of the season maps from
+ * {@code nba.near-cache}.
+ */
+@Factory
+public class HazelcastFactory {
+
+    static final List<String> SEASON_MAPS = List.of("playerDataMap", "teamDataMap");
+
+    @Singleton
+    @Replaces(HazelcastInstance.class)
+    @Bean(preDestroy = "shutdown")
+    public HazelcastInstance hazelcastInstance(NearCacheConfiguration nearCache) {
+        return Hazelcast.newHazelcastInstance(config(nearCache));
+    }
+
+    /**
+     * {@code hazelcast.xml} with a near cache on the season maps if enabled: a member then keeps the seasons it read
+     * and serves them again without a remote call until a change invalidates them, or after {@code time-to-live}
+     * should an invalidation be lost.
+     */
+    public static Config config(NearCacheConfiguration nearCache) {
+        var config = Config.load();
+        if (nearCache.enabled()) {
+            for (var mapName : SEASON_MAPS) {
+                config.getMapConfig(mapName).setNearCacheConfig(new NearCacheConfig(mapName)
+                    .setInMemoryFormat(InMemoryFormat.OBJECT)
+                    .setInvalidateOnChange(true)
+                    .setTimeToLiveSeconds((int) nearCache.timeToLive().toSeconds())
+                    .setEvictionConfig(new EvictionConfig()
+                        .setEvictionPolicy(EvictionPolicy.LRU)
+                        .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                        .setSize(nearCache.maxSize())));
+            }
+        }
+        return config;
+    }
+}
@@ -1,6 +1,8 @@
 package dev.lapysh.cfg;
 
 import com.hazelcast.core.HazelcastInstance;
+import dev.lapysh.core.storage.CareerStorage;
+import dev.lapysh.core.storage.StatisticsStorage;
 import io.micronaut.context.event.ApplicationEventListener;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
@@ -13,17 +15,23 @@ public class HazelcastInitializer
     private static final Logger LOG = LoggerFactory.getLogger(HazelcastInitializer.class);
 
     private final HazelcastInstance hazelcastInstance;
+    private final StatisticsStorage storage;
+    private final CareerStorage careers;
 
-    public HazelcastInitializer(HazelcastInstance hazelcastInstance) {
+    public HazelcastInitializer(HazelcastInstance hazelcastInstance,
+                                StatisticsStorage storage,
+                                CareerStorage careers) {
         this.hazelcastInstance = hazelcastInstance;
+        this.storage = storage;
+        this.careers = careers;
     }
 
     @Override
     public void onApplicationEvent(LiquibaseMigrationListener.LiquibaseMigrationCompletedEvent event) {
         LOG.info("Initializing Hazelcast after Liquibase migrations...");
-        // Touch map to start init process
-        hazelcastInstance.getMap("playerDataMap");
-        hazelcastInstance.getMap("teamDataMap");
+        // Touch maps to start init process
+        storage.mapNames().forEach(hazelcastInstance::getMap);
+        careers.mapNames().forEach(hazelcastInstance::getMap);
         LOG.info("Hazelcast initialization completed.");
     }
 }
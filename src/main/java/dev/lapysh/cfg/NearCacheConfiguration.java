@@ -0,0 +1,13 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("nba.near-cache")
+public record NearCacheConfiguration(
+    @Bindable(defaultValue = "false") boolean enabled,
+    @Bindable(defaultValue = "60s") Duration timeToLive,
+    @Bindable(defaultValue = "256") int maxSize) {
+}
@@ -0,0 +1,11 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("nba.rebuild")
+public record RebuildConfiguration(
+    @Bindable(defaultValue = "10m") Duration fenceTimeout) {
+}
@@ -0,0 +1,10 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+@ConfigurationProperties("nba.response-cache")
+public record ResponseCacheConfiguration(
+    @Bindable(defaultValue = "true") boolean enabled,
+    @Bindable(defaultValue = "67108864") long maxBytes) {
+}
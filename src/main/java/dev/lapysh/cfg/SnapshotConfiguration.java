@@ -0,0 +1,15 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("nba.snapshot")
+public record SnapshotConfiguration(
+    @Bindable(defaultValue = "false") boolean enabled,
+    @Bindable(defaultValue = "snapshots") Path directory,
+    @Bindable(defaultValue = "5m") Duration interval,
+    @Bindable(defaultValue = "1m") Duration reconcileMargin) {
+}
@@ -0,0 +1,13 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("nba.team-games")
+public record TeamGamesConfiguration(
+    @Bindable(defaultValue = "3h") Duration timeout,
+    @Bindable(defaultValue = "256") int maxOpenPerSeason,
+    @Bindable(defaultValue = "1m") Duration sweepInterval) {
+}
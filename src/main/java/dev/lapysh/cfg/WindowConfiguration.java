@@ -0,0 +1,8 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+@ConfigurationProperties("nba.window")
+public record WindowConfiguration(@Bindable(defaultValue = "10") int size) {
+}
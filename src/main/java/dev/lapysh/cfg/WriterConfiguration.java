@@ -0,0 +1,30 @@
+package dev.lapysh.cfg;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+@ConfigurationProperties("nba.writer")
+public record WriterConfiguration(
+    @Bindable(defaultValue = "10ms") Duration flushInterval,
+    @Bindable(defaultValue = "500") int maxBatchSize,
+    @Bindable(defaultValue = "20000") int maxPending,
+    @Bindable(defaultValue = "4") int maxConcurrentFlushes,
+    @Bindable(defaultValue = "2000") int copyThreshold,
+    @Bindable(defaultValue = "ACK_AFTER_FLUSH") Durability durability) {
+
+    public enum Durability {
+        /**
+         * Callers complete once their rows are committed.
+         */
+        ACK_AFTER_FLUSH,
+        /**
+         * Callers complete once their rows are buffered and the lines merged. A failed insert is retried until the
+         * writer shuts down and the keys of the lines stay reserved until their rows are committed, so a retry of
+         * the caller is rejected as a duplicate. Rows still buffered when the member stops are lost: raw rows are
+         * written at most once.
+         */
+        ACK_ON_ENQUEUE
+    }
+}
@@ -0,0 +1,67 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.Career;
+import dev.lapysh.core.model.Statistics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the statistics of one season to the careers of its players (teams): {@code deltas[i]} belongs to
+ * {@code names[i]}. Merged into the season of the career by default; with {@code replace} it replaces the season,
+ * and careers of entities missing from {@code names} lose the season. Careers left without seasons are removed.
+ */
+public class CareerProcessor implements EntryProcessor<String, Career, Void>, Offloadable {
+    public String seasonName;
+    public String[] names;
+    public Statistics[] deltas;
+    public boolean replace;
+
+    private transient Map<String, Statistics> byName;
+
+    public CareerProcessor(String seasonName, String[] names, Statistics[] deltas, boolean replace) {
+        this.seasonName = seasonName;
+        this.names = names;
+        this.deltas = deltas;
+        this.replace = replace;
+    }
+
+    @Override
+    public Void process(Map.Entry<String, Career> entry) {
+        var delta = delta(entry.getKey());
+        var career = entry.getValue();
+        if (delta == null) {
+            if (replace && career != null && career.seasons.remove(seasonName) != null) {
+                entry.setValue(career.seasons.isEmpty() ? null : career);
+            }
+            return null;
+        }
+        if (career == null) {
+            career = new Career();
+        }
+        if (replace) {
+            career.replace(seasonName, delta);
+        } else {
+            career.merge(seasonName, delta);
+        }
+        entry.setValue(career);
+        return null;
+    }
+
+    private synchronized Statistics delta(String name) {
+        if (byName == null) {
+            byName = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                byName.put(names[i], deltas[i]);
+            }
+        }
+        return byName.get(name);
+    }
+
+    @Override
+    public String getExecutorName() {
+        return "ExecutorOfMapEntryProcessor";
+    }
+}
@@ -0,0 +1,37 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.SeasonStatistics;
+
+import java.util.Map;
+
+/**
+ * Closes the open games of a {@code teamDataMap} season: the ones of {@code gameId}, if given, and the ones whose
+ * last line is not after {@code cutoff} (milliseconds since the epoch). Returns the number of games closed, the entry
+ * is left untouched if there are none.
+ */
+public class GameCloseProcessor implements EntryProcessor<String, SeasonStatistics, Integer>, Offloadable {
+    public String gameId;
+    public long cutoff;
+
+    public GameCloseProcessor(String gameId, long cutoff) {
+        this.gameId = gameId;
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public Integer process(Map.Entry<String, SeasonStatistics> entry) {
+        var season = entry.getValue();
+        var closed = season == null ? 0 : season.closeGames(gameId, cutoff);
+        if (closed > 0) {
+            entry.setValue(season);
+        }
+        return closed;
+    }
+
+    @Override
+    public String getExecutorName() {
+        return "ExecutorOfMapEntryProcessor";
+    }
+}
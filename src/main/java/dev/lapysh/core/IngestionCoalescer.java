@@ -0,0 +1,174 @@
+package dev.lapysh.core;
+
+import dev.lapysh.cfg.CoalescingConfiguration;
+import dev.lapysh.core.model.SeasonDelta;
+import dev.lapysh.core.storage.CareerStorage;
+import dev.lapysh.core.storage.StatisticsStorage;
+import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.infra.metrics.StageMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Folds validated lines into member-local per-season partial aggregates and flushes them as one merged delta per
+ * season key every {@code nba.coalescing.flush-interval} or as soon as {@code max-buffer-size} lines are buffered.
+ * Callers complete when the flush carrying their lines has been applied, so a successful {@code /save} is still
+ * visible to the next read.
+ * <p>
+ * One flush runs at a time: ticks and early flush requests arriving while it is applied collapse into the next
+ * flush, which then carries everything buffered meanwhile.
+ */
+@Singleton
+public class IngestionCoalescer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionCoalescer.class);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final StatisticsStorage storage;
+    private final CareerStorage careers;
+    private final CoalescingConfiguration config;
+    private final Sinks.Many<Long> flushRequests = Sinks.many().multicast().directBestEffort();
+    private final Disposable flusher;
+
+    // Guarded by this
+    private Map<String, Pending> pending = new HashMap<>();
+    private int bufferedLines;
+    private boolean closed;
+
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder seasonFlushes = new LongAdder();
+    private final LongAdder entityDeltas = new LongAdder();
+
+    public IngestionCoalescer(StatisticsStorage storage,
+                              CareerStorage careers,
+                              CoalescingConfiguration config,
+                              StageMetrics metrics) {
+        this.storage = storage;
+        this.careers = careers;
+        this.config = config;
+        this.flusher = config.enabled() ?
+            Flux.merge(Flux.interval(config.flushInterval()), flushRequests.asFlux())
+                .onBackpressureLatest()
+                .concatMap(tick -> flush(), 1)
+                .subscribe() :
+            null;
+        metrics.coalescing(lines, flushes, seasonFlushes, entityDeltas);
+    }
+
+    /**
+     * @return completes once the lines are merged into the season statistics
+     */
+    public Mono<Void> apply(String seasonName, List<PlayerGameData> seasonLines) {
+        lines.add(seasonLines.size());
+        if (!config.enabled()) {
+            var delta = SeasonDelta.of(seasonLines);
+            record(delta);
+            return store(seasonName, delta);
+        }
+
+        Sinks.Empty<Void> flushed;
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                return Mono.error(new IllegalStateException("Ingestion is shutting down"));
+            }
+            var seasonPending = pending.computeIfAbsent(seasonName, season -> new Pending());
+            seasonLines.forEach(seasonPending.delta::add);
+            bufferedLines += seasonLines.size();
+            flushed = seasonPending.flushed;
+            full = bufferedLines >= config.maxBufferSize();
+        }
+        if (full) {
+            // Dropped while a flush runs or another thread requests one, the next tick flushes anyway
+            flushRequests.tryEmitNext(0L);
+        }
+        return flushed.asMono();
+    }
+
+    private Mono<Void> flush() {
+        Map<String, Pending> toFlush;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return Mono.empty();
+            }
+            toFlush = pending;
+            pending = new HashMap<>();
+            bufferedLines = 0;
+        }
+        flushes.increment();
+        var applied = new ArrayList<Mono<Void>>(toFlush.size());
+        toFlush.forEach((seasonName, seasonPending) -> {
+            record(seasonPending.delta);
+            applied.add(store(seasonName, seasonPending.delta)
+                .doOnSuccess(done -> seasonPending.flushed.tryEmitEmpty())
+                .doOnError(seasonPending.flushed::tryEmitError)
+                .onErrorComplete()
+                .cache());
+        });
+        applied.forEach(Mono::subscribe);
+        return Mono.when(applied);
+    }
+
+    /**
+     * Merges a delta into the season and into the careers of its players and teams.
+     */
+    private Mono<Void> store(String seasonName, SeasonDelta delta) {
+        return Mono.when(storage.apply(seasonName, delta), careers.apply(seasonName, delta));
+    }
+
+    private void record(SeasonDelta delta) {
+        seasonFlushes.increment();
+        entityDeltas.add(delta.players().size() + delta.teams().size());
+    }
+
+    @PreDestroy
+    void close() {
+        // Flushes already running complete on their own, their stores are subscribed independently
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        if (config.flushOnShutdown()) {
+            synchronized (this) {
+                closed = true;
+            }
+            var flushed = flush();
+            try {
+                flushed.block(SHUTDOWN_TIMEOUT);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to flush buffered lines on shutdown", e);
+            }
+            return;
+        }
+        Map<String, Pending> dropped;
+        synchronized (this) {
+            closed = true;
+            dropped = pending;
+            pending = new HashMap<>();
+        }
+        dropped.values().forEach(seasonPending ->
+            seasonPending.flushed.tryEmitError(new IllegalStateException("Ingestion is shutting down")));
+    }
+
+    private static final class Pending {
+        private final SeasonDelta delta;
+        private final Sinks.Empty<Void> flushed = Sinks.empty();
+
+        private Pending() {
+            this.delta = new SeasonDelta();
+        }
+    }
+}
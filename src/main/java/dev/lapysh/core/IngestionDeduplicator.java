@@ -0,0 +1,220 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import dev.lapysh.cfg.DedupConfiguration;
+import dev.lapysh.core.model.SeasonLines;
+import dev.lapysh.in.model.LineKey;
+import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.in.repository.PlayersDataRepository;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Detects game lines ingested before, keyed on {@code (gameId, playerName)}.
+ * <p>
+ * Every season has a Bloom filter of its written lines and the keys reserved by ingestions in flight in
+ * {@code ingestedLinesMap}, keyed by the season name like the season entries. The keys of an ingestion are
+ * reserved in one entry processor call before its lines are written: a key reserved already is a duplicate, a key
+ * the filter has not seen is new without asking the database, and only filter hits are checked exactly against
+ * {@code players_data}. The caller commits the reservation into the filter once the rows are written, or releases
+ * it if the write failed, so a retried line is neither rejected nor counted twice.
+ * <p>
+ * A rebuild fences its seasons: their keys are not reserved, so their lines are rejected with
+ * {@link SeasonFencedException}, until the rebuild unfences them.
+ */
+@Singleton
+public class IngestionDeduplicator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionDeduplicator.class);
+    private static final Duration FENCE_POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final DedupConfiguration config;
+    private final IMap<String, SeasonLines> ingestedLinesMap;
+    private final PlayersDataRepository repository;
+
+    public IngestionDeduplicator(DedupConfiguration config,
+                                 HazelcastInstance hcInst,
+                                 PlayersDataRepository repository) {
+        this.config = config;
+        this.ingestedLinesMap = hcInst.getMap("ingestedLinesMap");
+        this.repository = repository;
+    }
+
+    /**
+     * Reserves the keys of the lines which are not duplicates.
+     *
+     * @param lines valid lines of a single season
+     * @return positions in {@code lines} of the duplicates, a repeated key within {@code lines} included, and the
+     * keys reserved for the others, {@link SeasonFencedException} if the season is fenced
+     */
+    public Mono<Reservation> reserve(String seasonName, List<PlayerGameData> lines) {
+        if (!config.enabled()) {
+            return Mono.just(Reservation.NONE);
+        }
+        var duplicates = new HashSet<Integer>();
+        var keys = new ArrayList<LineKey>(lines.size());
+        var positions = new ArrayList<Integer>(lines.size());
+        var unique = new HashSet<LineKey>();
+        for (int i = 0; i < lines.size(); i++) {
+            var line = lines.get(i);
+            if (line.getGameId() == null) {
+                continue;
+            }
+            var key = LineKey.of(line);
+            if (!unique.add(key)) {
+                duplicates.add(i);
+                continue;
+            }
+            keys.add(key);
+            positions.add(i);
+        }
+        if (keys.isEmpty()) {
+            return Mono.just(new Reservation(duplicates, new long[0]));
+        }
+
+        var hashes = new long[2 * keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            var h1 = keys.get(i).hash1();
+            hashes[2 * i] = h1;
+            hashes[2 * i + 1] = LineKey.hash2(h1);
+        }
+        var processor = new LineReserveProcessor(hashes, config.reservationTimeout().toMillis(),
+            config.expectedLinesPerSeason(), config.falsePositiveRate());
+        return Mono.fromCompletionStage(() -> ingestedLinesMap.submitToKey(seasonName, processor))
+            .switchIfEmpty(Mono.error(() -> new SeasonFencedException(seasonName)))
+            .flatMap(outcomes -> {
+                var reserved = new ArrayList<Integer>();
+                var maybeSeen = new ArrayList<LineKey>();
+                for (int i = 0; i < outcomes.length; i++) {
+                    if (outcomes[i] == SeasonLines.PENDING) {
+                        duplicates.add(positions.get(i));
+                        continue;
+                    }
+                    reserved.add(i);
+                    if (outcomes[i] == SeasonLines.SEEN) {
+                        maybeSeen.add(keys.get(i));
+                    }
+                }
+                if (maybeSeen.isEmpty()) {
+                    return Mono.just(new Reservation(duplicates, select(hashes, reserved)));
+                }
+                return repository.existing(seasonName, maybeSeen)
+                    .onErrorResume(e -> resolve(seasonName, select(hashes, reserved), false).then(Mono.error(e)))
+                    .flatMap(existing -> {
+                        var accepted = new ArrayList<Integer>(reserved.size());
+                        var written = new ArrayList<Integer>();
+                        for (var i : reserved) {
+                            if (existing.contains(keys.get(i))) {
+                                duplicates.add(positions.get(i));
+                                written.add(i);
+                            } else {
+                                accepted.add(i);
+                            }
+                        }
+                        var reservation = new Reservation(duplicates, select(hashes, accepted));
+                        return written.isEmpty() ?
+                            Mono.just(reservation) :
+                            resolve(seasonName, select(hashes, written), false).thenReturn(reservation);
+                    });
+            });
+    }
+
+    /**
+     * Adds the reserved keys to the filter once their lines are written.
+     */
+    public Mono<Void> commit(String seasonName, Reservation reservation) {
+        return resolve(seasonName, reservation.hashes(), true);
+    }
+
+    /**
+     * Frees the reserved keys after the write of their lines failed, so the lines can be retried. Failures are only
+     * logged, the reservation then expires after {@code nba.dedup.reservation-timeout}.
+     */
+    public Mono<Void> release(String seasonName, Reservation reservation) {
+        return resolve(seasonName, reservation.hashes(), false)
+            .onErrorResume(e -> {
+                LOG.warn("Failed to release {} line keys of season {}", reservation.hashes().length / 2,
+                    seasonName, e);
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Fences the seasons for at most {@code timeout} and waits until the keys reserved before are committed or
+     * released, so every line written to them until then is in {@code players_data} and applied. Does nothing if
+     * deduplication is disabled.
+     */
+    public Mono<Void> fence(Collection<String> seasonNames, Duration timeout) {
+        if (!config.enabled() || seasonNames.isEmpty()) {
+            return Mono.empty();
+        }
+        var processor = new LineFenceProcessor(timeout.toMillis(), config.expectedLinesPerSeason(),
+            config.falsePositiveRate());
+        return Mono.fromCompletionStage(() -> ingestedLinesMap.submitToKeys(Set.copyOf(seasonNames), processor))
+            .flatMap(pending -> pending.values().stream().allMatch(count -> count == 0) ?
+                Mono.just(true) :
+                Mono.empty())
+            .repeatWhenEmpty(ticks -> ticks.delayElements(FENCE_POLL_INTERVAL))
+            .then();
+    }
+
+    /**
+     * Lifts the fence of the seasons.
+     */
+    public Mono<Void> unfence(Collection<String> seasonNames) {
+        if (!config.enabled() || seasonNames.isEmpty()) {
+            return Mono.empty();
+        }
+        var processor = new LineFenceProcessor(0, config.expectedLinesPerSeason(), config.falsePositiveRate());
+        return Mono.fromCompletionStage(() -> ingestedLinesMap.submitToKeys(Set.copyOf(seasonNames), processor))
+            .then();
+    }
+
+    private Mono<Void> resolve(String seasonName, long[] hashes, boolean commit) {
+        if (hashes.length == 0) {
+            return Mono.empty();
+        }
+        var processor = new LineResolveProcessor(hashes, commit, config.expectedLinesPerSeason(),
+            config.falsePositiveRate());
+        return Mono.fromCompletionStage(() -> ingestedLinesMap.submitToKey(seasonName, processor)).then();
+    }
+
+    private static long[] select(long[] hashes, List<Integer> keys) {
+        var selected = new long[2 * keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            selected[2 * i] = hashes[2 * keys.get(i)];
+            selected[2 * i + 1] = hashes[2 * keys.get(i) + 1];
+        }
+        return selected;
+    }
+
+    /**
+     * @param duplicates positions of the duplicate lines
+     * @param hashes     the two hashes of every reserved key, {@code [h1, h2, h1, h2, ...]}
+     */
+    public record Reservation(Set<Integer> duplicates, long[] hashes) {
+        static final Reservation NONE = new Reservation(Set.of(), new long[0]);
+    }
+
+    public static class DuplicateLineException extends RuntimeException {
+        public DuplicateLineException(LineKey key) {
+            super("Duplicate line: player " + key.playerName() + " already played game " + key.gameId());
+        }
+    }
+
+    public static class SeasonFencedException extends RuntimeException {
+        public SeasonFencedException(String seasonName) {
+            super("Season " + seasonName + " is being rebuilt, retry later");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.lapysh.core;
+
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.BloomFilter;
+import dev.lapysh.core.model.SeasonLines;
+
+import java.util.Map;
+
+/**
+ * Fences a season for {@code timeoutMillis} ({@code 0} lifts the fence) and returns the number of keys still
+ * reserved by ingestions that started before, see {@link SeasonLines}.
+ */
+public class LineFenceProcessor implements EntryProcessor<String, SeasonLines, Integer> {
+    public long timeoutMillis;
+    // Sizing of a filter created by this invocation
+    public long expectedLines;
+    public double falsePositiveRate;
+
+    public LineFenceProcessor(long timeoutMillis, long expectedLines, double falsePositiveRate) {
+        this.timeoutMillis = timeoutMillis;
+        this.expectedLines = expectedLines;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public Integer process(Map.Entry<String, SeasonLines> entry) {
+        var lines = entry.getValue();
+        if (lines == null) {
+            if (timeoutMillis == 0) {
+                return 0;
+            }
+            lines = new SeasonLines(BloomFilter.create(expectedLines, falsePositiveRate));
+        }
+        var now = System.currentTimeMillis();
+        lines.fencedUntil = timeoutMillis == 0 ? 0 : now + timeoutMillis;
+        lines.expire(now);
+        entry.setValue(lines);
+        return lines.pending.size();
+    }
+}
@@ -0,0 +1,47 @@
+package dev.lapysh.core;
+
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.BloomFilter;
+import dev.lapysh.core.model.SeasonLines;
+
+import java.util.Map;
+
+/**
+ * Reserves line keys of a season and tells for each whether it is reserved by another ingestion already or might
+ * have been written before, see {@link SeasonLines#reserve(long, long, long)}. {@code hashes} holds the two hashes
+ * of every key, {@code [h1, h2, h1, h2, ...]}. A few bit probes and map lookups per key, runs on the partition
+ * thread. Returns {@code null} without reserving anything if the season is fenced for a rebuild.
+ */
+public class LineReserveProcessor implements EntryProcessor<String, SeasonLines, byte[]> {
+    public long[] hashes;
+    public long timeoutMillis;
+    // Sizing of a filter created by this invocation
+    public long expectedLines;
+    public double falsePositiveRate;
+
+    public LineReserveProcessor(long[] hashes, long timeoutMillis, long expectedLines, double falsePositiveRate) {
+        this.hashes = hashes;
+        this.timeoutMillis = timeoutMillis;
+        this.expectedLines = expectedLines;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public byte[] process(Map.Entry<String, SeasonLines> entry) {
+        var lines = entry.getValue();
+        if (lines == null) {
+            lines = new SeasonLines(BloomFilter.create(expectedLines, falsePositiveRate));
+        }
+        var now = System.currentTimeMillis();
+        if (lines.fenced(now)) {
+            return null;
+        }
+        lines.expire(now);
+        var outcomes = new byte[hashes.length / 2];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = lines.reserve(hashes[2 * i], hashes[2 * i + 1], now + timeoutMillis);
+        }
+        entry.setValue(lines);
+        return outcomes;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.lapysh.core;
+
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.BloomFilter;
+import dev.lapysh.core.model.SeasonLines;
+
+import java.util.Map;
+
+/**
+ * Resolves reserved line keys of a season: commits them into the filter once their lines are written, or releases
+ * them if the write failed. {@code hashes} as in {@link LineReserveProcessor}.
+ */
+public class LineResolveProcessor implements EntryProcessor<String, SeasonLines, Void> {
+    public long[] hashes;
+    public boolean commit;
+    // Sizing of a filter created by this invocation, if the entry was cleared meanwhile
+    public long expectedLines;
+    public double falsePositiveRate;
+
+    public LineResolveProcessor(long[] hashes, boolean commit, long expectedLines, double falsePositiveRate) {
+        this.hashes = hashes;
+        this.commit = commit;
+        this.expectedLines = expectedLines;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public Void process(Map.Entry<String, SeasonLines> entry) {
+        var lines = entry.getValue();
+        if (lines == null) {
+            if (!commit) {
+                return null;
+            }
+            lines = new SeasonLines(BloomFilter.create(expectedLines, falsePositiveRate));
+        }
+        for (int i = 0; i < hashes.length; i += 2) {
+            if (commit) {
+                lines.commit(hashes[i], hashes[i + 1]);
+            } else {
+                lines.release(hashes[i], hashes[i + 1]);
+            }
+        }
+        entry.setValue(lines);
+        return null;
+    }
+}
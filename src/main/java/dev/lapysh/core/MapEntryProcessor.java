@@ -2,59 +2,130 @@ package dev.lapysh.core;
 
 import com.hazelcast.core.Offloadable;
 import com.hazelcast.map.EntryProcessor;
-import dev.lapysh.core.model.ContinuousAverage;
+import dev.lapysh.core.leaderboard.LeaderboardStore;
+import dev.lapysh.core.model.LineValues;
+import dev.lapysh.core.model.OpenGame;
+import dev.lapysh.core.model.SeasonStatistics;
 import dev.lapysh.core.model.Statistics;
-import dev.lapysh.in.model.PlayerGameData;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 
-public class MapEntryProcessor implements EntryProcessor<String, Map<String, Statistics>, Void>, Offloadable {
-    public String name;
-    public PlayerGameData playerGameData;
+/**
+ * Merges partial aggregates into a season entry: {@code deltas[i]} is folded into the statistics of the player
+ * (team) {@code names[i]}. A single line, a batch and a coalesced flush all arrive as one invocation per season.
+ * {@code deltas} hold moments only, {@code lines[i]} are the values of the lines of {@code names[i]}, in order, which
+ * are added to the sketch and recent games of its aggregate here. For players {@code teams[i]} is the team of the
+ * last line of {@code names[i]}, {@code null} for teams. For teams {@code games} are the per-game totals of the
+ * lines, {@code null} for players.
+ * <p>
+ * The settings the merge depends on travel with it: {@code windowCapacity} ({@code nba.window.size}) for the recent
+ * games of players, {@code 0} for teams, {@code maxOpen} ({@code nba.team-games.max-open-per-season}) for the open
+ * games of teams.
+ */
+public class MapEntryProcessor implements EntryProcessor<String, SeasonStatistics, Void>, Offloadable {
+    public String mapName;
+    public String[] names;
+    public Statistics[] deltas;
+    public LineValues[] lines;
+    public String[] teams;
+    public OpenGame[] games;
+    // Epoch of a season created by this invocation, chosen on the primary and shipped to the backups with it
+    public long epoch;
+    // Time the games were seen, likewise taken on the primary so that the backups close the same games
+    public long time;
+    public int windowCapacity;
+    public int maxOpen;
 
-    public MapEntryProcessor(String name, PlayerGameData playerGameData) {
-        this.name = name;
-        this.playerGameData = playerGameData;
+    public MapEntryProcessor(String mapName,
+                             String[] names,
+                             Statistics[] deltas,
+                             LineValues[] lines,
+                             String[] teams,
+                             OpenGame[] games,
+                             long epoch,
+                             long time,
+                             int windowCapacity,
+                             int maxOpen) {
+        this.mapName = mapName;
+        this.names = names;
+        this.deltas = deltas;
+        this.lines = lines;
+        this.teams = teams;
+        this.games = games;
+        this.epoch = epoch;
+        this.time = time;
+        this.windowCapacity = windowCapacity;
+        this.maxOpen = maxOpen;
+    }
+
+    public static MapEntryProcessor players(String mapName,
+                                            Map<String, Statistics> deltas,
+                                            Map<String, LineValues> lines,
+                                            Map<String, String> teams,
+                                            int windowCapacity) {
+        return of(mapName, deltas, lines, teams, null, windowCapacity, 0);
+    }
+
+    public static MapEntryProcessor teams(String mapName,
+                                          Map<String, Statistics> deltas,
+                                          Map<String, LineValues> lines,
+                                          Collection<OpenGame> games,
+                                          int maxOpen) {
+        return of(mapName, deltas, lines, Map.of(), games, 0, maxOpen);
+    }
+
+    private static MapEntryProcessor of(String mapName,
+                                        Map<String, Statistics> deltas,
+                                        Map<String, LineValues> lines,
+                                        Map<String, String> teams,
+                                        Collection<OpenGame> games,
+                                        int windowCapacity,
+                                        int maxOpen) {
+        var names = new String[deltas.size()];
+        var stats = new Statistics[deltas.size()];
+        var entityLines = lines.isEmpty() ? null : new LineValues[deltas.size()];
+        var entityTeams = teams.isEmpty() ? null : new String[deltas.size()];
+        var i = 0;
+        for (var delta : deltas.entrySet()) {
+            names[i] = delta.getKey();
+            if (entityLines != null) {
+                entityLines[i] = lines.get(delta.getKey());
+            }
+            if (entityTeams != null) {
+                entityTeams[i] = teams.get(delta.getKey());
+            }
+            stats[i++] = delta.getValue();
+        }
+        return new MapEntryProcessor(mapName, names, stats, entityLines, entityTeams,
+            games == null ? null : games.toArray(OpenGame[]::new), 0, 0, windowCapacity, maxOpen);
     }
 
     @Override
-    public Void process(Map.Entry<String, Map<String, Statistics>> season) {
+    public Void process(Map.Entry<String, SeasonStatistics> season) {
         var seasonStats = season.getValue();
         if (seasonStats == null) {
-            var stats = new HashMap<String, Statistics>();
-            stats.put(name, createStatistics(playerGameData));
-            season.setValue(stats);
-            return null;
+            if (epoch == 0) {
+                epoch = SeasonStatistics.newEpoch();
+            }
+            seasonStats = new SeasonStatistics(epoch);
         }
-        seasonStats.merge(name, createStatistics(playerGameData), MapEntryProcessor::mergeStatistics);
+        // Games first, the merge bumps the version the write-behind store goes by
+        if (games != null) {
+            if (time == 0) {
+                time = System.currentTimeMillis();
+            }
+            seasonStats.addGames(Arrays.asList(games), time, maxOpen);
+        }
+        seasonStats.merge(names, deltas, lines, teams, windowCapacity);
         season.setValue(seasonStats);
-        return null;
-    }
 
-    static Statistics createStatistics(PlayerGameData playerGameData) {
-        return new Statistics(
-            new ContinuousAverage().addValue(playerGameData.getPoints()),
-            new ContinuousAverage().addValue(playerGameData.getRebounds()),
-            new ContinuousAverage().addValue(playerGameData.getAssists()),
-            new ContinuousAverage().addValue(playerGameData.getSteals()),
-            new ContinuousAverage().addValue(playerGameData.getBlocks()),
-            new ContinuousAverage().addValue(playerGameData.getFouls()),
-            new ContinuousAverage().addValue(playerGameData.getTurnovers()),
-            new ContinuousAverage().addValue(playerGameData.getMinutesPlayed())
-        );
-    }
-
-    static Statistics mergeStatistics(Statistics oldStats, Statistics newStats) {
-        oldStats.avgPoints().addValue(newStats.avgPoints().average);
-        oldStats.avgRebounds().addValue(newStats.avgRebounds().average);
-        oldStats.avgAssists().addValue(newStats.avgAssists().average);
-        oldStats.avgSteals().addValue(newStats.avgSteals().average);
-        oldStats.avgBlocks().addValue(newStats.avgBlocks().average);
-        oldStats.avgFouls().addValue(newStats.avgFouls().average);
-        oldStats.avgTurnovers().addValue(newStats.avgTurnovers().average);
-        oldStats.avgMinutesPlayed().addValue(newStats.avgMinutesPlayed().average);
-        return oldStats;
+        var leaderboards = LeaderboardStore.current();
+        if (leaderboards != null) {
+            leaderboards.update(mapName, season.getKey(), seasonStats, names);
+        }
+        return null;
     }
 
     @Override
@@ -1,116 +1,541 @@
 package dev.lapysh.core;
 
 
-import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.map.IMap;
+import dev.lapysh.core.model.Career;
+import dev.lapysh.core.model.PageQuery;
+import dev.lapysh.core.model.QuantileSketch;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonStatistics;
 import dev.lapysh.core.model.Statistics;
+import dev.lapysh.core.storage.CareerStorage;
+import dev.lapysh.core.storage.StatisticsStorage;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import dev.lapysh.in.model.BatchResult;
+import dev.lapysh.in.model.LineKey;
 import dev.lapysh.in.model.PlayerGameData;
-import dev.lapysh.in.repository.PlayersDataRepository;
+import dev.lapysh.in.repository.PlayersDataWriter;
+import dev.lapysh.stats.model.CareerStatistics;
+import dev.lapysh.stats.model.PlayerQuantiles;
 import dev.lapysh.stats.model.PlayerStatistics;
+import dev.lapysh.stats.model.StatValues;
+import dev.lapysh.stats.model.StatisticsPage;
+import dev.lapysh.stats.model.StatisticsResponse;
 import dev.lapysh.stats.model.TeamStatistics;
 import io.micronaut.context.annotation.Context;
+import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static dev.lapysh.cfg.WriterConfiguration.Durability.ACK_ON_ENQUEUE;
 
 @Context
 @Singleton
 public class PlayerService {
 
-    private final PlayersDataRepository repository;
-    private final IMap<String, Map<String, Statistics>> playerDataMap;
-    private final IMap<String, Map<String, Statistics>> teamDataMap;
+    private static final Logger LOG = LoggerFactory.getLogger(PlayerService.class);
+
+    private final PlayersDataWriter writer;
+    private final StatisticsStorage storage;
+    private final CareerStorage careers;
+    private final IngestionCoalescer coalescer;
+    private final IngestionDeduplicator deduplicator;
+    private final StageTimer validation;
 
-    public PlayerService(PlayersDataRepository repository,
-                         HazelcastInstance hcInst) {
-        this.repository = repository;
-        this.playerDataMap = hcInst.getMap("playerDataMap");
-        this.teamDataMap = hcInst.getMap("teamDataMap");
+    public PlayerService(PlayersDataWriter writer,
+                         StatisticsStorage storage,
+                         CareerStorage careers,
+                         IngestionCoalescer coalescer,
+                         IngestionDeduplicator deduplicator,
+                         StageMetrics metrics) {
+        this.writer = writer;
+        this.storage = storage;
+        this.careers = careers;
+        this.coalescer = coalescer;
+        this.deduplicator = deduplicator;
+        this.validation = metrics.validation();
+    }
+
+    static String validate(PlayerGameData data) {
+        if (data.getPlayerName() == null || data.getPlayerName().isEmpty())
+            return "Player name must not be empty";
+        if (data.getTeamName() == null || data.getTeamName().isEmpty())
+            return "Team name must not be empty";
+        if (data.getSeasonName() == null || data.getSeasonName().isEmpty())
+            return "Season name must not be empty";
+        if (data.getPoints() < 0) return "Points must be positive";
+        if (data.getRebounds() < 0) return "Rebounds must be positive";
+        if (data.getAssists() < 0) return "Assists must be positive";
+        if (data.getSteals() < 0) return "Steals must be positive";
+        if (data.getBlocks() < 0) return "Blocks must be positive";
+        if (data.getTurnovers() < 0) return "Turnovers must be positive";
+        if (data.getFouls() < 0 || data.getFouls() > 6) return "Fouls must be between 0 and 6";
+        if (data.getMinutesPlayed() < 0.0 || data.getMinutesPlayed() > 48.0)
+            return "Minutes played must be between 0.0 and 48.0";
+        return null;
     }
 
     private Mono<PlayerGameData> validatePlayerGameData(PlayerGameData playerGameData) {
-        var validationStatus = Optional.of(playerGameData)
-            .map(data -> {
-                if (data.getPlayerName() == null || data.getPlayerName().isEmpty())
-                    return "Player name must not be empty";
-                if (data.getTeamName() == null || data.getTeamName().isEmpty())
-                    return "Team name must not be empty";
-                if (data.getSeasonName() == null || data.getSeasonName().isEmpty())
-                    return "Season name must not be empty";
-                if (data.getPoints() < 0) return "Points must be positive";
-                if (data.getRebounds() < 0) return "Rebounds must be positive";
-                if (data.getAssists() < 0) return "Assists must be positive";
-                if (data.getSteals() < 0) return "Steals must be positive";
-                if (data.getBlocks() < 0) return "Blocks must be positive";
-                if (data.getTurnovers() < 0) return "Turnovers must be positive";
-                if (data.getFouls() < 0 || data.getFouls() > 6) return "Fouls must be between 0 and 6";
-                if (data.getMinutesPlayed() < 0.0 || data.getMinutesPlayed() > 48.0)
-                    return "Minutes played must be between 0.0 and 48.0";
-                return null;
-            })
-            .orElse("ok");
+        var start = System.nanoTime();
+        var validationStatus = validate(playerGameData);
+        validation.record(start, validationStatus == null);
 
-        return validationStatus.equals("ok") ?
+        return validationStatus == null ?
             Mono.just(playerGameData) :
             Mono.error(new IllegalArgumentException(validationStatus));
     }
 
     public Mono<Void> savePlayerData(PlayerGameData playerGameData) {
         return validatePlayerGameData(playerGameData)
-            .flatMap(validData -> Mono.when(
-                    Mono.fromCompletionStage(() ->
-                        playerDataMap.submitToKey(
-                            validData.getSeasonName(),
-                            new MapEntryProcessor(validData.getPlayerName(), playerGameData)
-                        )
-                    ),
-                    Mono.fromCompletionStage(() ->
-                        teamDataMap.submitToKey(
-                            validData.getSeasonName(),
-                            new MapEntryProcessor(validData.getTeamName(), playerGameData)
-                        )
-                    ),
-                    repository.save(validData)
+            .flatMap(validData -> deduplicator.reserve(validData.getSeasonName(), List.of(validData))
+                .flatMap(reservation -> reservation.duplicates().isEmpty() ?
+                    ingest(validData.getSeasonName(), List.of(validData), reservation) :
+                    Mono.<Void>error(new IngestionDeduplicator.DuplicateLineException(LineKey.of(validData)))
                 )
             );
     }
 
-    public Mono<List<PlayerStatistics>> getPlayerStatistics(String seasonName) {
-        return Mono.fromCompletionStage(() -> playerDataMap.getAsync(seasonName))
-            .flatMapMany(seasonStats -> Flux.fromIterable(seasonStats.entrySet()))
-            .map(entry -> new PlayerStatistics(
-                entry.getKey(),
-                entry.getValue().avgPoints().average,
-                entry.getValue().avgRebounds().average,
-                entry.getValue().avgAssists().average,
-                entry.getValue().avgSteals().average,
-                entry.getValue().avgBlocks().average,
-                entry.getValue().avgFouls().average,
-                entry.getValue().avgTurnovers().average,
-                entry.getValue().avgMinutesPlayed().average
-            ))
-            .collectList();
-    }
-
-    public Mono<List<TeamStatistics>> getTeamStatistics(String seasonName) {
-        return Mono.fromCompletionStage(() -> teamDataMap.getAsync(seasonName))
-            .flatMapMany(seasonStats -> Flux.fromIterable(seasonStats.entrySet()))
-            .map(entry -> new TeamStatistics(
-                entry.getKey(),
-                entry.getValue().avgPoints().average,
-                entry.getValue().avgRebounds().average,
-                entry.getValue().avgAssists().average,
-                entry.getValue().avgSteals().average,
-                entry.getValue().avgBlocks().average,
-                entry.getValue().avgFouls().average,
-                entry.getValue().avgTurnovers().average,
-                entry.getValue().avgMinutesPlayed().average
-            ))
-            .collectList();
+    /**
+     * Writes the raw rows first and merges the lines into the statistics only once they are written, so a line
+     * whose write failed can be retried without being counted twice. Lines skipped as already present in
+     * {@code players_data}, e.g. copies ingested with deduplication disabled, are not merged either. The reserved
+     * keys are released if the write failed, and committed once the lines are merged, or the merge failed, so a
+     * fence drained by a rebuild leaves no written line unmerged.
+     * <p>
+     * With {@code ACK_ON_ENQUEUE} the lines are merged as soon as they are buffered, see
+     * {@link #mergeBeforeWritten}.
+     */
+    private Mono<Void> ingest(String seasonName,
+                              List<PlayerGameData> lines,
+                              IngestionDeduplicator.Reservation reservation) {
+        return writer.enqueue(lines)
+            .onErrorResume(e -> deduplicator.release(seasonName, reservation).then(Mono.error(e)))
+            .flatMap(written -> writer.durability() == ACK_ON_ENQUEUE ?
+                mergeBeforeWritten(seasonName, lines, reservation, written) :
+                written
+                    .onErrorResume(e -> deduplicator.release(seasonName, reservation).then(Mono.error(e)))
+                    .flatMap(writtenLines -> Mono.usingWhen(
+                        Mono.just(reservation),
+                        committed -> writtenLines.isEmpty() ?
+                            Mono.<Void>empty() :
+                            coalescer.apply(seasonName, writtenLines),
+                        committed -> deduplicator.commit(seasonName, committed)
+                    )));
+    }
+
+    /**
+     * Merges buffered lines before their rows are written. Their keys are committed only once the rows are
+     * written too, until then a retried line is rejected as a duplicate rather than passing the exact check against
+     * {@code players_data} and being counted twice. Rows the writer never writes, i.e. still buffered at shutdown,
+     * keep their keys reserved until {@code nba.dedup.reservation-timeout}.
+     * <p>
+     * Lines merged but then skipped as already present, i.e. copies ingested with deduplication disabled, stay
+     * counted until the season is rebuilt.
+     */
+    private Mono<Void> mergeBeforeWritten(String seasonName,
+                                          List<PlayerGameData> lines,
+                                          IngestionDeduplicator.Reservation reservation,
+                                          Mono<List<PlayerGameData>> written) {
+        var merged = coalescer.apply(seasonName, lines).cache();
+        var stored = written.doOnNext(writtenLines -> {
+            if (writtenLines.size() < lines.size()) {
+                LOG.warn("{} lines of season {} were already stored but are counted, POST /rebuild recounts them",
+                    lines.size() - writtenLines.size(), seasonName);
+            }
+        });
+        Mono.when(stored, merged.onErrorComplete())
+            .then(deduplicator.commit(seasonName, reservation))
+            .subscribe(null, e -> LOG.warn("Keys of {} lines of season {} were not committed", lines.size(),
+                seasonName, e));
+        return merged;
+    }
+
+    /**
+     * Saves many lines at once: invalid and duplicate lines are reported back and skipped, valid lines are grouped
+     * by season, their raw rows handed to the buffered writer and then the lines to the coalescer. A season whose
+     * lines could not be saved, e.g. being rebuilt or with the write buffer full, fails on its own: its lines are
+     * reported back as retryable and the other seasons are saved.
+     */
+    public Mono<BatchResult> savePlayerDataBatch(List<PlayerGameData> lines) {
+        var errors = new ArrayList<BatchResult.LineError>();
+        var validBySeason = new HashMap<String, List<Integer>>();
+        for (int i = 0; i < lines.size(); i++) {
+            var line = lines.get(i);
+            var start = System.nanoTime();
+            var error = line == null ? "Line must not be empty" : validate(line);
+            validation.record(start, error == null);
+            if (error != null) {
+                errors.add(new BatchResult.LineError(i, error));
+                continue;
+            }
+            validBySeason.computeIfAbsent(line.getSeasonName(), season -> new ArrayList<>()).add(i);
+        }
+        if (validBySeason.isEmpty()) {
+            return Mono.just(new BatchResult(0, errors));
+        }
+
+        return Flux.fromIterable(validBySeason.entrySet())
+            .flatMap(season -> saveSeason(season.getKey(), lines, season.getValue()))
+            .collectList()
+            .map(seasons -> {
+                var accepted = 0;
+                for (var season : seasons) {
+                    accepted += season.accepted();
+                    errors.addAll(season.errors());
+                }
+                errors.sort(Comparator.comparingInt(BatchResult.LineError::line));
+                return new BatchResult(accepted, errors);
+            });
+    }
+
+    /**
+     * @param positions positions in {@code lines} of the valid lines of the season
+     */
+    private Mono<BatchResult> saveSeason(String seasonName, List<PlayerGameData> lines, List<Integer> positions) {
+        var seasonLines = positions.stream().map(lines::get).toList();
+        return deduplicator.reserve(seasonName, seasonLines)
+            .flatMap(reservation -> {
+                var duplicates = reservation.duplicates();
+                var errors = new ArrayList<BatchResult.LineError>();
+                var accepted = new ArrayList<PlayerGameData>(seasonLines.size());
+                var acceptedPositions = new ArrayList<Integer>(seasonLines.size());
+                for (int i = 0; i < seasonLines.size(); i++) {
+                    if (duplicates.contains(i)) {
+                        errors.add(new BatchResult.LineError(positions.get(i), "Duplicate line"));
+                    } else {
+                        accepted.add(seasonLines.get(i));
+                        acceptedPositions.add(positions.get(i));
+                    }
+                }
+                if (accepted.isEmpty()) {
+                    return Mono.just(new BatchResult(0, errors));
+                }
+                return ingest(seasonName, accepted, reservation)
+                    .thenReturn(new BatchResult(accepted.size(), errors))
+                    .onErrorResume(e -> {
+                        errors.addAll(failed(seasonName, acceptedPositions, e));
+                        return Mono.just(new BatchResult(0, errors));
+                    });
+            })
+            .onErrorResume(e -> Mono.just(new BatchResult(0, failed(seasonName, positions, e))));
+    }
+
+    private static List<BatchResult.LineError> failed(String seasonName, List<Integer> positions, Throwable e) {
+        String error;
+        if (e instanceof IngestionDeduplicator.SeasonFencedException
+            || e instanceof PlayersDataWriter.BufferFullException) {
+            error = e.getMessage();
+        } else {
+            LOG.warn("Failed to save {} lines of season {}", positions.size(), seasonName, e);
+            error = "Line could not be saved, retry later";
+        }
+        return positions.stream()
+            .map(position -> new BatchResult.LineError(position, error, true))
+            .toList();
+    }
+
+    /**
+     * The player statistics of a season as read, empty for a missing season. Listings are built from it with
+     * {@link #playerLines} or {@link #windowLines}, its {@code epoch} and {@code version} identify them.
+     */
+    public Mono<SeasonStatistics> getPlayerSeason(String seasonName) {
+        return storage.getPlayerStatistics(seasonName);
+    }
+
+    public Mono<SeasonStatistics> getTeamSeason(String seasonName) {
+        return storage.getTeamStatistics(seasonName);
+    }
+
+    /**
+     * The players of a season, by name.
+     */
+    public static List<PlayerStatistics> playerLines(SeasonStatistics season) {
+        return season.entities.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(entry -> toPlayerStatistics(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+
+    public static List<TeamStatistics> teamLines(SeasonStatistics season) {
+        return season.entities.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .map(entry -> toTeamStatistics(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+
+    public Mono<PlayerStatistics> getPlayerStatistics(String seasonName, String playerName) {
+        return storage.getPlayer(seasonName, playerName)
+            .map(statistics -> toPlayerStatistics(playerName, statistics));
+    }
+
+    public Mono<TeamStatistics> getTeamStatistics(String seasonName, String teamName) {
+        return storage.getTeam(seasonName, teamName)
+            .map(statistics -> toTeamStatistics(teamName, statistics));
+    }
+
+    /**
+     * Career of one player with a breakdown by season, empty if the player has never played.
+     */
+    public Mono<CareerStatistics<PlayerStatistics>> getPlayerCareer(String playerName) {
+        return careers.getPlayerCareer(playerName)
+            .map(career -> toCareer(playerName, career, PlayerService::toPlayerStatistics));
+    }
+
+    public Mono<CareerStatistics<TeamStatistics>> getTeamCareer(String teamName) {
+        return careers.getTeamCareer(teamName)
+            .map(career -> toCareer(teamName, career, PlayerService::toTeamStatistics));
+    }
+
+    private static <T extends StatisticsResponse> CareerStatistics<T> toCareer(String name,
+                                                                               Career career,
+                                                                               BiFunction<String, Statistics, T> line) {
+        var total = career.total();
+        var seasons = new TreeMap<String, T>();
+        career.seasons.forEach((seasonName, statistics) -> seasons.put(seasonName, line.apply(name, statistics)));
+        return new CareerStatistics<>(name, total.n(), line.apply(name, total), seasons);
     }
 
+    /**
+     * Quantiles of every stat of one player, empty if the player has not played in the season. Fails with an
+     * {@link IllegalStateException} if the player's sketch does not cover all of its games.
+     *
+     * @param quantiles comma separated, each between 0 and 1
+     */
+    public Mono<PlayerQuantiles> getPlayerQuantiles(String seasonName, String playerName, String quantiles) {
+        return Mono.fromCallable(() -> parseQuantiles(quantiles))
+            .flatMap(qs -> storage.getPlayer(seasonName, playerName)
+                .map(statistics -> toPlayerQuantiles(playerName, statistics, qs)));
+    }
+
+    private static List<Double> parseQuantiles(String quantiles) {
+        var parsed = new ArrayList<Double>();
+        for (var quantile : quantiles.split(",")) {
+            double q;
+            try {
+                q = Double.parseDouble(quantile.trim());
+            } catch (NumberFormatException e) {
+                q = Double.NaN;
+            }
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+            }
+            parsed.add(q);
+        }
+        return parsed;
+    }
+
+    private static PlayerQuantiles toPlayerQuantiles(String name, Statistics statistics, List<Double> quantiles) {
+        var byStat = new LinkedHashMap<String, Map<String, Double>>();
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            var values = new LinkedHashMap<String, Double>();
+            for (var q : quantiles) {
+                values.put(q.toString(), statistics.quantile(stat, q));
+            }
+            byStat.put(Statistics.NAMES.get(stat), values);
+        }
+        return new PlayerQuantiles(name, statistics.n(), QuantileSketch.RELATIVE_ACCURACY, byStat);
+    }
+
+    /**
+     * @param stat one of {@link Statistics#AVERAGES}
+     */
+    public Mono<List<PlayerStatistics>> getTopPlayers(String seasonName, String stat, int limit, long minGames) {
+        return Mono.fromCallable(() -> statIndex(stat))
+            .flatMap(index -> storage.getTopPlayers(seasonName, index, limit, minGames))
+            .map(ranking -> IntStream.range(0, ranking.names.length)
+                .mapToObj(i -> toPlayerStatistics(ranking.names[i], ranking.statistics[i]))
+                .toList());
+    }
+
+    public Mono<List<TeamStatistics>> getTopTeams(String seasonName, String stat, int limit, long minGames) {
+        return Mono.fromCallable(() -> statIndex(stat))
+            .flatMap(index -> storage.getTopTeams(seasonName, index, limit, minGames))
+            .map(ranking -> IntStream.range(0, ranking.names.length)
+                .mapToObj(i -> toTeamStatistics(ranking.names[i], ranking.statistics[i]))
+                .toList());
+    }
+
+    /**
+     * Averages of the last {@code window} games of the players of a season, by name. Players with fewer games are
+     * averaged over the games they have, players without recent games (rows stored before they were kept, until
+     * their next game or a rebuild) are left out.
+     */
+    public static List<PlayerStatistics> windowLines(SeasonStatistics season, int window) {
+        var ranking = Ranking.window(season.entities, window);
+        return IntStream.range(0, ranking.names.length)
+            .mapToObj(i -> toWindowStatistics(ranking.names[i], ranking.statistics[i]))
+            .toList();
+    }
+
+    /**
+     * Window aggregates hold sums only, the spread of the stats is not reported.
+     */
+    private static PlayerStatistics toWindowStatistics(String name, Statistics statistics) {
+        return new PlayerStatistics(
+            name,
+            statistics.avgPoints(),
+            statistics.avgRebounds(),
+            statistics.avgAssists(),
+            statistics.avgSteals(),
+            statistics.avgBlocks(),
+            statistics.avgFouls(),
+            statistics.avgTurnovers(),
+            statistics.avgMinutesPlayed()
+        );
+    }
+
+    /**
+     * Team statistics over the closed games of a season, one value per team and game, by name.
+     */
+    public Mono<List<TeamStatistics>> getTeamGameStatistics(String seasonName) {
+        return storage.getTeamGames(seasonName)
+            .defaultIfEmpty(Ranking.empty())
+            .map(ranking -> IntStream.range(0, ranking.names.length)
+                .mapToObj(i -> toTeamStatistics(ranking.names[i], ranking.statistics[i]))
+                .toList());
+    }
+
+    /**
+     * Closes a game for all of its teams, its totals count towards their per-game statistics from now on.
+     *
+     * @return number of teams whose game was open
+     */
+    public Mono<Integer> closeGame(String seasonName, String gameId) {
+        return storage.closeGame(seasonName, gameId).defaultIfEmpty(0);
+    }
+
+    /**
+     * One page of the players of a season, see {@link PageQuery}.
+     *
+     * @param sort  {@code name} or one of {@link Statistics#AVERAGES}
+     * @param order {@code asc} or {@code desc}, by default ascending by name and descending by an average
+     * @param team  only players whose last line was for this team
+     * @param after cursor of the previous page
+     */
+    public Mono<StatisticsPage<PlayerStatistics>> getPlayerPage(String seasonName,
+                                                                String sort,
+                                                                @Nullable String order,
+                                                                long minGames,
+                                                                @Nullable String team,
+                                                                int limit,
+                                                                @Nullable String after) {
+        return Mono.fromCallable(() -> pageQuery(sort, order, minGames, team, limit, after))
+            .flatMap(query -> storage.getPlayerPage(seasonName, query)
+                .defaultIfEmpty(Ranking.empty())
+                .map(page -> toPage(query, page, PlayerService::toPlayerStatistics)));
+    }
+
+    public Mono<StatisticsPage<TeamStatistics>> getTeamPage(String seasonName,
+                                                            String sort,
+                                                            @Nullable String order,
+                                                            long minGames,
+                                                            int limit,
+                                                            @Nullable String after) {
+        return Mono.fromCallable(() -> pageQuery(sort, order, minGames, null, limit, after))
+            .flatMap(query -> storage.getTeamPage(seasonName, query)
+                .defaultIfEmpty(Ranking.empty())
+                .map(page -> toPage(query, page, PlayerService::toTeamStatistics)));
+    }
+
+    private static PageQuery pageQuery(String sort,
+                                       @Nullable String order,
+                                       long minGames,
+                                       @Nullable String team,
+                                       int limit,
+                                       @Nullable String after) {
+        var index = "name".equals(sort) ? PageQuery.BY_NAME : statIndex(sort);
+        boolean descending;
+        if (order == null) {
+            descending = index != PageQuery.BY_NAME;
+        } else if (order.equals("asc") || order.equals("desc")) {
+            descending = order.equals("desc");
+        } else {
+            throw new IllegalArgumentException("Unknown order " + order + ", expected asc or desc");
+        }
+        var query = new PageQuery(index, descending, minGames, team, limit, null, 0);
+        return after == null ? query : query.after(after);
+    }
+
+    /**
+     * A full page may be followed by another one, its cursor is the last row.
+     */
+    private static <T extends StatisticsResponse> StatisticsPage<T> toPage(PageQuery query,
+                                                                           Ranking page,
+                                                                           BiFunction<String, Statistics, T> line) {
+        var lines = IntStream.range(0, page.names.length)
+            .mapToObj(i -> line.apply(page.names[i], page.statistics[i]))
+            .toList();
+        var last = page.names.length - 1;
+        var next = page.names.length == query.limit ? query.cursor(page.names[last], page.statistics[last]) : null;
+        return new StatisticsPage<>(lines, next);
+    }
+
+    private static int statIndex(String stat) {
+        var index = Statistics.AVERAGES.indexOf(stat);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown stat " + stat + ", expected one of " + Statistics.AVERAGES);
+        }
+        return index;
+    }
+
+    private static PlayerStatistics toPlayerStatistics(String name, Statistics statistics) {
+        return new PlayerStatistics(
+            name,
+            statistics.avgPoints(),
+            statistics.avgRebounds(),
+            statistics.avgAssists(),
+            statistics.avgSteals(),
+            statistics.avgBlocks(),
+            statistics.avgFouls(),
+            statistics.avgTurnovers(),
+            statistics.avgMinutesPlayed(),
+            statValues(statistics, Statistics.POINTS),
+            statValues(statistics, Statistics.REBOUNDS),
+            statValues(statistics, Statistics.ASSISTS),
+            statValues(statistics, Statistics.STEALS),
+            statValues(statistics, Statistics.BLOCKS),
+            statValues(statistics, Statistics.FOULS),
+            statValues(statistics, Statistics.TURNOVERS),
+            statValues(statistics, Statistics.MINUTES_PLAYED)
+        );
+    }
+
+    private static TeamStatistics toTeamStatistics(String name, Statistics statistics) {
+        return new TeamStatistics(
+            name,
+            statistics.avgPoints(),
+            statistics.avgRebounds(),
+            statistics.avgAssists(),
+            statistics.avgSteals(),
+            statistics.avgBlocks(),
+            statistics.avgFouls(),
+            statistics.avgTurnovers(),
+            statistics.avgMinutesPlayed(),
+            statValues(statistics, Statistics.POINTS),
+            statValues(statistics, Statistics.REBOUNDS),
+            statValues(statistics, Statistics.ASSISTS),
+            statValues(statistics, Statistics.STEALS),
+            statValues(statistics, Statistics.BLOCKS),
+            statValues(statistics, Statistics.FOULS),
+            statValues(statistics, Statistics.TURNOVERS),
+            statValues(statistics, Statistics.MINUTES_PLAYED)
+        );
+    }
+
+    private static StatValues statValues(Statistics statistics, int stat) {
+        return new StatValues(statistics.standardDeviation(stat), statistics.min(stat), statistics.max(stat));
+    }
 }
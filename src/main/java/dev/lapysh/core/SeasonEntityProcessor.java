@@ -0,0 +1,30 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+
+import java.util.Map;
+
+/**
+ * Reads the statistics of one player (team) of a season on the owner of the season, {@code null} if there are none.
+ */
+public class SeasonEntityProcessor implements EntryProcessor<String, SeasonStatistics, Statistics>, ReadOnly {
+    public String name;
+
+    public SeasonEntityProcessor(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Statistics process(Map.Entry<String, SeasonStatistics> entry) {
+        var season = entry.getValue();
+        return season == null ? null : season.entities.get(name);
+    }
+
+    @Override
+    public EntryProcessor<String, SeasonStatistics, Statistics> getBackupProcessor() {
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.PageQuery;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonStatistics;
+
+import java.util.Map;
+
+/**
+ * Selects one page of a season listing on the owner of the season, only the rows of the page travel back.
+ */
+public class SeasonPageProcessor implements EntryProcessor<String, SeasonStatistics, Ranking>, ReadOnly {
+    public PageQuery query;
+
+    public SeasonPageProcessor(PageQuery query) {
+        this.query = query;
+    }
+
+    @Override
+    public Ranking process(Map.Entry<String, SeasonStatistics> entry) {
+        var season = entry.getValue();
+        return season == null ? Ranking.empty() : query.select(season.entities, season.teams);
+    }
+
+    @Override
+    public EntryProcessor<String, SeasonStatistics, Ranking> getBackupProcessor() {
+        return null;
+    }
+}
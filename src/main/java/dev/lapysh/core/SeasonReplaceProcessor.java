@@ -0,0 +1,38 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.leaderboard.LeaderboardStore;
+import dev.lapysh.core.model.SeasonStatistics;
+
+import java.util.Map;
+
+/**
+ * Replaces a season entry as a whole. Going through an entry processor rather than {@code set} keeps the
+ * member-local state of the primary and the backups in step, the same way {@link MapEntryProcessor} does.
+ */
+public class SeasonReplaceProcessor implements EntryProcessor<String, SeasonStatistics, Void>, Offloadable {
+    public String mapName;
+    public SeasonStatistics season;
+
+    public SeasonReplaceProcessor(String mapName, SeasonStatistics season) {
+        this.mapName = mapName;
+        this.season = season;
+    }
+
+    @Override
+    public Void process(Map.Entry<String, SeasonStatistics> entry) {
+        entry.setValue(season);
+
+        var leaderboards = LeaderboardStore.current();
+        if (leaderboards != null) {
+            leaderboards.update(mapName, entry.getKey(), season);
+        }
+        return null;
+    }
+
+    @Override
+    public String getExecutorName() {
+        return "ExecutorOfMapEntryProcessor";
+    }
+}
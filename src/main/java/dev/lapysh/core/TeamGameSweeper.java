@@ -0,0 +1,35 @@
+package dev.lapysh.core;
+
+import dev.lapysh.cfg.TeamGamesConfiguration;
+import dev.lapysh.core.storage.SeasonStatisticsStorage;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Closes the games no line arrived for during {@code nba.team-games.timeout}. Every member sweeps the seasons it
+ * owns.
+ */
+@Singleton
+public class TeamGameSweeper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TeamGameSweeper.class);
+
+    private final SeasonStatisticsStorage storage;
+    private final TeamGamesConfiguration config;
+
+    public TeamGameSweeper(SeasonStatisticsStorage storage, TeamGamesConfiguration config) {
+        this.storage = storage;
+        this.config = config;
+    }
+
+    @Scheduled(fixedDelay = "${nba.team-games.sweep-interval:1m}", initialDelay = "${nba.team-games.sweep-interval:1m}")
+    void closeIdleGames() {
+        try {
+            storage.closeIdleGames(System.currentTimeMillis() - config.timeout().toMillis());
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to close idle games", e);
+        }
+    }
+}
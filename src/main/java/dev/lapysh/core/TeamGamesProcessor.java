@@ -0,0 +1,34 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+
+import java.util.Map;
+
+/**
+ * Reads the aggregates of the closed games of every team of a {@code teamDataMap} season, by name.
+ */
+public class TeamGamesProcessor implements EntryProcessor<String, SeasonStatistics, Ranking>, ReadOnly {
+
+    @Override
+    public Ranking process(Map.Entry<String, SeasonStatistics> entry) {
+        var season = entry.getValue();
+        if (season == null || season.games == null) {
+            return Ranking.empty();
+        }
+        var names = season.games.totals.keySet().stream().sorted().toArray(String[]::new);
+        var statistics = new Statistics[names.length];
+        for (int i = 0; i < names.length; i++) {
+            statistics[i] = season.games.totals.get(names[i]);
+        }
+        return new Ranking(names, statistics);
+    }
+
+    @Override
+    public EntryProcessor<String, SeasonStatistics, Ranking> getBackupProcessor() {
+        return null;
+    }
+}
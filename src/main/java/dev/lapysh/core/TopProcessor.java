@@ -0,0 +1,44 @@
+package dev.lapysh.core;
+
+import com.hazelcast.core.ReadOnly;
+import com.hazelcast.map.EntryProcessor;
+import dev.lapysh.core.leaderboard.LeaderboardStore;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonStatistics;
+
+import java.util.Map;
+
+/**
+ * Reads the top {@code limit} players (teams) of a season by the average of {@code stat} on the owner of the season,
+ * from its leaderboard. Only the ranked rows travel back.
+ */
+public class TopProcessor implements EntryProcessor<String, SeasonStatistics, Ranking>, ReadOnly {
+    public String mapName;
+    public int stat;
+    public int limit;
+    public long minGames;
+
+    public TopProcessor(String mapName, int stat, int limit, long minGames) {
+        this.mapName = mapName;
+        this.stat = stat;
+        this.limit = limit;
+        this.minGames = minGames;
+    }
+
+    @Override
+    public Ranking process(Map.Entry<String, SeasonStatistics> entry) {
+        var season = entry.getValue();
+        if (season == null) {
+            return Ranking.empty();
+        }
+        var leaderboards = LeaderboardStore.current();
+        return leaderboards == null ?
+            Ranking.scan(season.entities, stat, limit, minGames) :
+            leaderboards.top(mapName, entry.getKey(), season, stat, limit, minGames);
+    }
+
+    @Override
+    public EntryProcessor<String, SeasonStatistics, Ranking> getBackupProcessor() {
+        return null;
+    }
+}
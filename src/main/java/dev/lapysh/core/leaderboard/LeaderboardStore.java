@@ -0,0 +1,123 @@
+package dev.lapysh.core.leaderboard;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.MapEvent;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.MapClearedListener;
+import com.hazelcast.partition.MigrationListener;
+import com.hazelcast.partition.MigrationState;
+import com.hazelcast.partition.ReplicaMigrationEvent;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonStatistics;
+import io.micronaut.context.annotation.Context;
+import jakarta.annotation.PreDestroy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member-local leaderboards of the seasons this member is a replica of, one {@link SeasonLeaderboard} per map and
+ * season.
+ * <p>
+ * Entry processors update the leaderboard of a season
+ * on the primary and on the backups with the players (teams) they change. A leaderboard that missed a version, or
+ * that this member does not have yet, is rebuilt from the season value.
+ */
+@Context
+public class LeaderboardStore {
+
+    // Hack to give deserialized entry processors access to the member-local store
+    private static volatile LeaderboardStore current;
+
+    private final Map<SeasonKey, SeasonLeaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    public LeaderboardStore(HazelcastInstance hcInst) {
+        var invalidation = new Invalidation();
+        hcInst.getMap("playerDataMap").addEntryListener(invalidation, false);
+        hcInst.getMap("teamDataMap").addEntryListener(invalidation, false);
+        // A season this member stops being a replica of would silently go stale
+        hcInst.getPartitionService().addMigrationListener(new MigrationListener() {
+            @Override
+            public void migrationStarted(MigrationState state) {
+            }
+
+            @Override
+            public void migrationFinished(MigrationState state) {
+                leaderboards.clear();
+            }
+
+            @Override
+            public void replicaMigrationCompleted(ReplicaMigrationEvent event) {
+            }
+
+            @Override
+            public void replicaMigrationFailed(ReplicaMigrationEvent event) {
+            }
+        });
+        current = this;
+    }
+
+    /**
+     * @return the store of this member or {@code null} before it was created
+     */
+    public static LeaderboardStore current() {
+        return current;
+    }
+
+    /**
+     * Re-ranks the changed players (teams) of a season.
+     */
+    public void update(String mapName, String seasonName, SeasonStatistics season, String... names) {
+        var key = new SeasonKey(mapName, seasonName);
+        var leaderboard = leaderboards.get(key);
+        if (leaderboard != null && leaderboard.advance(season.epoch, season.version, season.entities, names)) {
+            return;
+        }
+        leaderboards.put(key, new SeasonLeaderboard(season.epoch, season.version, season.entities));
+    }
+
+    /**
+     * @param season the season value, the leaderboard is rebuilt from it if it is behind
+     */
+    public Ranking top(String mapName, String seasonName, SeasonStatistics season, int stat, int limit, long minGames) {
+        var key = new SeasonKey(mapName, seasonName);
+        var leaderboard = leaderboards.get(key);
+        // A leaderboard may be ahead of the value: an offloaded update ranks before its value is set
+        if (leaderboard == null || !leaderboard.covers(season.epoch, season.version)) {
+            leaderboard = new SeasonLeaderboard(season.epoch, season.version, season.entities);
+            leaderboards.put(key, leaderboard);
+        }
+        return leaderboard.top(stat, limit, minGames);
+    }
+
+    @PreDestroy
+    void close() {
+        current = null;
+        leaderboards.clear();
+    }
+
+    private record SeasonKey(String mapName, String seasonName) {
+    }
+
+    private class Invalidation implements EntryRemovedListener<String, Object>,
+        EntryEvictedListener<String, Object>,
+        MapClearedListener {
+
+        @Override
+        public void entryRemoved(EntryEvent<String, Object> event) {
+            leaderboards.remove(new SeasonKey(event.getName(), event.getKey()));
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<String, Object> event) {
+            leaderboards.remove(new SeasonKey(event.getName(), event.getKey()));
+        }
+
+        @Override
+        public void mapCleared(MapEvent event) {
+            leaderboards.keySet().removeIf(key -> key.mapName().equals(event.getName()));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package dev.lapysh.core.leaderboard;
+
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.Statistics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Players (teams) of one season ordered by every average, mirroring version {@code version} of epoch {@code epoch}
+ * of the season value. Changing a player re-positions it in each order in {@code O(log n)}.
+ */
+final class SeasonLeaderboard {
+
+    private final long epoch;
+    private long version;
+    // Own copies, the value's statistics keep changing after they were ranked
+    private final Map<String, Statistics> rows = new HashMap<>();
+    private final List<NavigableSet<Rank>> orders = new ArrayList<>(Statistics.STATS);
+
+    SeasonLeaderboard(long epoch, long version, Map<String, Statistics> entities) {
+        this.epoch = epoch;
+        this.version = version;
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            orders.add(new TreeSet<>());
+        }
+        entities.forEach(this::put);
+    }
+
+    /**
+     * Re-ranks {@code names}, changed by version {@code version} of the season.
+     *
+     * @return {@code false} if this is not the previous version of the season, nothing is changed then
+     */
+    synchronized boolean advance(long epoch, long version, Map<String, Statistics> entities, String[] names) {
+        if (epoch != this.epoch || version != this.version + 1) {
+            return false;
+        }
+        for (var name : names) {
+            put(name, entities.get(name));
+        }
+        this.version = version;
+        return true;
+    }
+
+    /**
+     * @return whether this leaderboard is at least at version {@code version} of the season
+     */
+    synchronized boolean covers(long epoch, long version) {
+        return this.epoch == epoch && this.version >= version;
+    }
+
+    /**
+     * Walks the order of {@code stat} from the top, skipping players (teams) with fewer than {@code minGames} games.
+     */
+    synchronized Ranking top(int stat, int limit, long minGames) {
+        var names = new ArrayList<String>(limit);
+        var statistics = new ArrayList<Statistics>(limit);
+        for (var rank : orders.get(stat)) {
+            if (names.size() == limit) {
+                break;
+            }
+            var row = rows.get(rank.name());
+            if (row.n() >= minGames) {
+                names.add(rank.name());
+                statistics.add(row.summary());
+            }
+        }
+        return new Ranking(names.toArray(String[]::new), statistics.toArray(Statistics[]::new));
+    }
+
+    private void put(String name, Statistics stats) {
+        var row = stats.summary();
+        var previous = rows.put(name, row);
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            var order = orders.get(stat);
+            if (previous != null) {
+                order.remove(new Rank(previous.average(stat), name));
+            }
+            order.add(new Rank(row.average(stat), name));
+        }
+    }
+
+    private record Rank(double average, String name) implements Comparable<Rank> {
+        @Override
+        public int compareTo(Rank other) {
+            return Ranking.compare(average, name, other.average, other.name);
+        }
+    }
+}
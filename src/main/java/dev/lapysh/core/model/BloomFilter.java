@@ -0,0 +1,59 @@
+package dev.lapysh.core.model;
+
+/**
+ * Bloom filter over 128-bit keys given as two 64-bit hashes, probed with double hashing
+ * ({@code h1 + i * h2} for the {@code i}-th of {@code hashes} bits).
+ */
+public final class BloomFilter {
+
+    public final long[] bits;
+    public final int hashes;
+    public long count;
+
+    public BloomFilter(long[] bits, int hashes, long count) {
+        this.bits = bits;
+        this.hashes = hashes;
+        this.count = count;
+    }
+
+    /**
+     * Sizes a filter for {@code expectedKeys} keys at the given false positive rate.
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        var bitCount = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        var hashes = (int) Math.max(1, Math.round((double) bitCount / expectedKeys * Math.log(2)));
+        return new BloomFilter(new long[(int) Math.max(1, (bitCount + 63) >>> 6)], hashes, 0);
+    }
+
+    public boolean mightContain(long h1, long h2) {
+        var bitCount = (long) bits.length << 6;
+        for (int i = 0; i < hashes; i++) {
+            var bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if the key might have been added before
+     */
+    public boolean put(long h1, long h2) {
+        var bitCount = (long) bits.length << 6;
+        var present = true;
+        for (int i = 0; i < hashes; i++) {
+            var bit = Math.floorMod(h1 + i * h2, bitCount);
+            var word = (int) (bit >>> 6);
+            var mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                present = false;
+                bits[word] |= mask;
+            }
+        }
+        if (!present) {
+            count++;
+        }
+        return present;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.lapysh.core.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Value of {@code playerCareerMap} / {@code teamCareerMap}: the statistics of one player (team) in every season it
+ * played in, kept in step with the season maps by merging the same deltas. Only the averages and the spread are
+ * kept, without sketches or recent games.
+ */
+public final class Career {
+
+    public final Map<String, Statistics> seasons;
+
+    public Career() {
+        this(new HashMap<>());
+    }
+
+    public Career(Map<String, Statistics> seasons) {
+        this.seasons = seasons;
+    }
+
+    public void merge(String seasonName, Statistics delta) {
+        seasons.computeIfAbsent(seasonName, season -> new Statistics()).merge(delta);
+    }
+
+    public void replace(String seasonName, Statistics season) {
+        seasons.put(seasonName, season.summary());
+    }
+
+    /**
+     * All seasons rolled up into one aggregate.
+     */
+    public Statistics total() {
+        var total = new Statistics();
+        seasons.values().forEach(total::merge);
+        return total;
+    }
+}
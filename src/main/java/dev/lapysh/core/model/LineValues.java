@@ -0,0 +1,77 @@
+package dev.lapysh.core.model;
+
+import dev.lapysh.in.model.PlayerGameData;
+
+import java.util.Arrays;
+
+/**
+ * The stats of the lines of one player (team) in a {@link SeasonDelta}, {@link Statistics#STATS} values per line in
+ * the order the lines were folded in. Deltas carry moments only, the entry processor pushes these values into the
+ * sketch and the recent games of the season's aggregate, see {@link Statistics#addLines(LineValues)}.
+ */
+public final class LineValues {
+
+    private double[] values;
+    private int size;
+
+    public LineValues() {
+        this(new double[Statistics.STATS], 0);
+    }
+
+    /**
+     * @param values the first {@code size * STATS} of them are the lines
+     */
+    public LineValues(double[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @return number of lines
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Backing array, the values of line {@code i} at {@code [i * STATS, (i + 1) * STATS)}; not to be modified.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    public LineValues add(PlayerGameData line) {
+        var from = grow(1);
+        values[from + Statistics.POINTS] = line.getPoints();
+        values[from + Statistics.REBOUNDS] = line.getRebounds();
+        values[from + Statistics.ASSISTS] = line.getAssists();
+        values[from + Statistics.STEALS] = line.getSteals();
+        values[from + Statistics.BLOCKS] = line.getBlocks();
+        values[from + Statistics.FOULS] = line.getFouls();
+        values[from + Statistics.TURNOVERS] = line.getTurnovers();
+        values[from + Statistics.MINUTES_PLAYED] = line.getMinutesPlayed();
+        return this;
+    }
+
+    /**
+     * Appends the lines of a later delta.
+     */
+    public LineValues merge(LineValues other) {
+        var from = grow(other.size);
+        System.arraycopy(other.values, 0, values, from, other.size * Statistics.STATS);
+        return this;
+    }
+
+    /**
+     * Makes room for {@code lines} more lines, returns the offset of the first of them.
+     */
+    private int grow(int lines) {
+        var from = size * Statistics.STATS;
+        var length = from + lines * Statistics.STATS;
+        if (length > values.length) {
+            values = Arrays.copyOf(values, Math.max(length, 2 * values.length));
+        }
+        size += lines;
+        return from;
+    }
+}
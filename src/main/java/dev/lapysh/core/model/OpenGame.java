@@ -0,0 +1,53 @@
+package dev.lapysh.core.model;
+
+import dev.lapysh.in.model.PlayerGameData;
+
+/**
+ * Totals of every stat of one team in one game, summed over the lines of its players seen so far.
+ * {@code lastLineAt} is the time the last of them was merged into the season, in milliseconds since the epoch.
+ */
+public final class OpenGame {
+
+    public final String team;
+    public final String gameId;
+    public final double[] totals;
+    public long lastLineAt;
+
+    public OpenGame(String team, String gameId) {
+        this(team, gameId, new double[Statistics.STATS], 0);
+    }
+
+    public OpenGame(String team, String gameId, double[] totals, long lastLineAt) {
+        this.team = team;
+        this.gameId = gameId;
+        this.totals = totals;
+        this.lastLineAt = lastLineAt;
+    }
+
+    public Key key() {
+        return new Key(team, gameId);
+    }
+
+    public OpenGame add(PlayerGameData line) {
+        totals[Statistics.POINTS] += line.getPoints();
+        totals[Statistics.REBOUNDS] += line.getRebounds();
+        totals[Statistics.ASSISTS] += line.getAssists();
+        totals[Statistics.STEALS] += line.getSteals();
+        totals[Statistics.BLOCKS] += line.getBlocks();
+        totals[Statistics.FOULS] += line.getFouls();
+        totals[Statistics.TURNOVERS] += line.getTurnovers();
+        totals[Statistics.MINUTES_PLAYED] += line.getMinutesPlayed();
+        return this;
+    }
+
+    public OpenGame merge(OpenGame other) {
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            totals[stat] += other.totals[stat];
+        }
+        lastLineAt = Math.max(lastLineAt, other.lastLineAt);
+        return this;
+    }
+
+    public record Key(String team, String gameId) {
+    }
+}
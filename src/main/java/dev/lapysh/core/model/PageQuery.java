@@ -0,0 +1,133 @@
+package dev.lapysh.core.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * One page of a season listing: the players (teams) with at least {@code minGames} games, of {@code team} if given,
+ * ordered by name or by the average of stat {@code sort}, that come after the row {@code (afterValue, afterName)} of
+ * the previous page.
+ * <p>
+ * Rows are ordered by value, ties by name ascending, so the order is total and a page starts exactly where the
+ * previous one ended even while the season changes. Sorting by name orders by name only.
+ */
+public final class PageQuery {
+
+    public static final int BY_NAME = -1;
+
+    public final int sort;
+    public final boolean descending;
+    public final long minGames;
+    public final String team;
+    public final int limit;
+    public final String afterName;
+    public final double afterValue;
+
+    public PageQuery(int sort,
+                     boolean descending,
+                     long minGames,
+                     String team,
+                     int limit,
+                     String afterName,
+                     double afterValue) {
+        this.sort = sort;
+        this.descending = descending;
+        this.minGames = minGames;
+        this.team = team;
+        this.limit = limit;
+        this.afterName = afterName;
+        this.afterValue = afterValue;
+    }
+
+    /**
+     * Same query continuing after the row encoded in {@code cursor}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another order
+     */
+    public PageQuery after(String cursor) {
+        ByteBuffer bytes;
+        int cursorSort;
+        boolean cursorDescending;
+        double value;
+        try {
+            bytes = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+            cursorSort = bytes.getInt();
+            cursorDescending = bytes.get() != 0;
+            value = bytes.getDouble();
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor);
+        }
+        if (cursorSort != sort || cursorDescending != descending) {
+            throw new IllegalArgumentException("Cursor was issued for another sort order");
+        }
+        return new PageQuery(sort, descending, minGames, team, limit, StandardCharsets.UTF_8.decode(bytes).toString(),
+            value);
+    }
+
+    /**
+     * Opaque cursor of the page following the row {@code (name, statistics)}.
+     */
+    public String cursor(String name, Statistics statistics) {
+        var encodedName = name.getBytes(StandardCharsets.UTF_8);
+        var bytes = ByteBuffer.allocate(Integer.BYTES + 1 + Double.BYTES + encodedName.length)
+            .putInt(sort)
+            .put((byte) (descending ? 1 : 0))
+            .putDouble(value(statistics))
+            .put(encodedName);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    public int compare(double value, String name, double otherValue, String otherName) {
+        if (sort == BY_NAME) {
+            var byName = name.compareTo(otherName);
+            return descending ? -byName : byName;
+        }
+        var byValue = Double.compare(value, otherValue);
+        if (byValue != 0) {
+            return descending ? -byValue : byValue;
+        }
+        return name.compareTo(otherName);
+    }
+
+    /**
+     * Selects the page out of a whole season keeping at most {@code limit} rows at a time.
+     *
+     * @param teams team of every player, consulted only when filtering by team
+     */
+    public Ranking select(Map<String, Statistics> entities, Map<String, String> teams) {
+        Comparator<Map.Entry<String, Statistics>> order = (a, b) ->
+            compare(value(a.getValue()), a.getKey(), value(b.getValue()), b.getKey());
+        // Worst row of the page on top
+        var page = new PriorityQueue<>(Math.min(limit, entities.size()) + 1, order.reversed());
+        entities.forEach((name, stats) -> {
+            if (stats.n() < minGames
+                || team != null && !team.equals(teams.get(name))
+                || afterName != null && compare(value(stats), name, afterValue, afterName) <= 0) {
+                return;
+            }
+            page.add(Map.entry(name, stats));
+            if (page.size() > limit) {
+                page.poll();
+            }
+        });
+        var rows = new ArrayList<>(page);
+        rows.sort(order);
+        var names = new String[rows.size()];
+        var statistics = new Statistics[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            names[i] = rows.get(i).getKey();
+            statistics[i] = rows.get(i).getValue();
+        }
+        return new Ranking(names, statistics);
+    }
+
+    private double value(Statistics statistics) {
+        return sort == BY_NAME ? 0 : statistics.average(sort);
+    }
+}
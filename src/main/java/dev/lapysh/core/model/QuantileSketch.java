@@ -0,0 +1,166 @@
+package dev.lapysh.core.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * DDSketch of every stat of a player (team): a quantile estimate is within {@link #RELATIVE_ACCURACY} of the value
+ * of the game at that rank.
+ * <p>
+ * Values above {@link #MIN_VALUE} fall into logarithmic buckets {@code (GAMMA^(i-1), GAMMA^i]}, smaller ones are
+ * counted as zero. Stats are never negative and clamped at {@link #MAX_VALUE}, so a stat never has more than a few
+ * hundred buckets. Per stat only the range of buckets between the lowest and the highest seen is kept. Sketches
+ * merge by adding bucket counts, in any order.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.02;
+    public static final double MIN_VALUE = 0.05;
+    public static final double MAX_VALUE = 1000;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int[] EMPTY = new int[0];
+
+    private final long[] zeros;
+    private final int[] offsets;
+    private final int[][] counts;
+
+    public QuantileSketch() {
+        this(new long[Statistics.STATS], new int[Statistics.STATS], new int[Statistics.STATS][]);
+        Arrays.fill(counts, EMPTY);
+    }
+
+    private QuantileSketch(long[] zeros, int[] offsets, int[][] counts) {
+        this.zeros = zeros;
+        this.offsets = offsets;
+        this.counts = counts;
+    }
+
+    public void add(int stat, double value) {
+        if (value <= MIN_VALUE) {
+            zeros[stat]++;
+            return;
+        }
+        var index = index(value);
+        cover(stat, index, index);
+        counts[stat][index - offsets[stat]]++;
+    }
+
+    public QuantileSketch merge(QuantileSketch other) {
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            zeros[stat] += other.zeros[stat];
+            var from = other.counts[stat];
+            if (from.length == 0) {
+                continue;
+            }
+            cover(stat, other.offsets[stat], other.offsets[stat] + from.length - 1);
+            var shift = other.offsets[stat] - offsets[stat];
+            for (int i = 0; i < from.length; i++) {
+                counts[stat][shift + i] += from[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return number of games of {@code stat} in the sketch
+     */
+    public long count(int stat) {
+        var count = zeros[stat];
+        for (var bucket : counts[stat]) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    /**
+     * Lower {@code q}-quantile of {@code stat}, {@code NaN} if the sketch is empty.
+     */
+    public double quantile(int stat, double q) {
+        var count = count(stat);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        var rank = (long) (q * (count - 1));
+        var seen = zeros[stat];
+        if (rank < seen) {
+            return 0;
+        }
+        var buckets = counts[stat];
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (rank < seen) {
+                return value(offsets[stat] + i);
+            }
+        }
+        return value(offsets[stat] + buckets.length - 1);
+    }
+
+    /**
+     * Per stat: zero count (int64), offset and bucket count (int32 each), bucket counts (int32 each). Big-endian.
+     */
+    public byte[] toBytes() {
+        var size = 0;
+        for (var buckets : counts) {
+            size += Long.BYTES + Integer.BYTES * (2 + buckets.length);
+        }
+        var bytes = ByteBuffer.allocate(size);
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            bytes.putLong(zeros[stat]).putInt(offsets[stat]).putInt(counts[stat].length);
+            for (var bucket : counts[stat]) {
+                bytes.putInt(bucket);
+            }
+        }
+        return bytes.array();
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        var buffer = ByteBuffer.wrap(bytes);
+        var zeros = new long[Statistics.STATS];
+        var offsets = new int[Statistics.STATS];
+        var counts = new int[Statistics.STATS][];
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            zeros[stat] = buffer.getLong();
+            offsets[stat] = buffer.getInt();
+            counts[stat] = new int[buffer.getInt()];
+            for (int i = 0; i < counts[stat].length; i++) {
+                counts[stat][i] = buffer.getInt();
+            }
+        }
+        return new QuantileSketch(zeros, offsets, counts);
+    }
+
+    /**
+     * Widens the bucket range of {@code stat} to include buckets {@code from} to {@code to}.
+     */
+    private void cover(int stat, int from, int to) {
+        var buckets = counts[stat];
+        if (buckets.length == 0) {
+            offsets[stat] = from;
+            counts[stat] = new int[to - from + 1];
+            return;
+        }
+        var offset = offsets[stat];
+        var lowest = Math.min(from, offset);
+        var highest = Math.max(to, offset + buckets.length - 1);
+        if (lowest == offset && highest == offset + buckets.length - 1) {
+            return;
+        }
+        var widened = new int[highest - lowest + 1];
+        System.arraycopy(buckets, 0, widened, offset - lowest, buckets.length);
+        offsets[stat] = lowest;
+        counts[stat] = widened;
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(Math.min(value, MAX_VALUE)) / LOG_GAMMA);
+    }
+
+    /**
+     * Value of bucket {@code index} with the same relative error to both of its bounds.
+     */
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,69 @@
+package dev.lapysh.core.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Players (teams) ordered by one average, best first, in the order of a {@link PageQuery} or by name:
+ * {@code statistics[i]} belongs to {@code names[i]}.
+ */
+public final class Ranking {
+
+    public final String[] names;
+    public final Statistics[] statistics;
+
+    public Ranking(String[] names, Statistics[] statistics) {
+        this.names = names;
+        this.statistics = statistics;
+    }
+
+    public static Ranking empty() {
+        return new Ranking(new String[0], new Statistics[0]);
+    }
+
+    /**
+     * Order of rankings: higher average first, ties by name.
+     */
+    public static int compare(double average, String name, double otherAverage, String otherName) {
+        var byAverage = Double.compare(otherAverage, average);
+        return byAverage != 0 ? byAverage : name.compareTo(otherName);
+    }
+
+    /**
+     * Ranks a whole season, for seasons without a maintained leaderboard.
+     */
+    public static Ranking scan(Map<String, Statistics> entities, int stat, int limit, long minGames) {
+        var ranked = new ArrayList<Map.Entry<String, Statistics>>();
+        entities.forEach((name, stats) -> {
+            if (stats.n() >= minGames) {
+                ranked.add(Map.entry(name, stats));
+            }
+        });
+        ranked.sort((a, b) -> compare(a.getValue().average(stat), a.getKey(), b.getValue().average(stat), b.getKey()));
+        var size = Math.min(limit, ranked.size());
+        var names = new String[size];
+        var statistics = new Statistics[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = ranked.get(i).getKey();
+            statistics[i] = ranked.get(i).getValue();
+        }
+        return new Ranking(names, statistics);
+    }
+
+    /**
+     * Statistics of the last {@code window} games of every player of a season that has recent games, by name.
+     */
+    public static Ranking window(Map<String, Statistics> entities, int window) {
+        var names = entities.entrySet().stream()
+            .filter(entity -> entity.getValue().recent() != null)
+            .map(Map.Entry::getKey)
+            .sorted()
+            .toArray(String[]::new);
+        var statistics = new Statistics[names.length];
+        for (int i = 0; i < names.length; i++) {
+            statistics[i] = entities.get(names[i]).recent().last(window);
+        }
+        return new Ranking(names, statistics);
+    }
+}
@@ -0,0 +1,167 @@
+package dev.lapysh.core.model;
+
+import dev.lapysh.in.model.PlayerGameData;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The last games of a player (team) in ingestion order, in a ring buffer of primitive stats with the sums of the
+ * games it holds: adding a game overwrites the oldest one and updates the sums in constant time.
+ * <p>
+ * New buffers get a capacity of {@code nba.window.size} from whoever creates them. A buffer read back from the
+ * database, the snapshot or the wire holds exactly its games, the entry processors resize it to the capacity they
+ * carry before merging into it, see {@link Statistics#withWindow(int)}.
+ */
+public final class RecentGames {
+
+    // Game g of the ring at [g * STATS, (g + 1) * STATS)
+    private final double[] games;
+    private final double[] sums = new double[Statistics.STATS];
+    private int next;
+    private int size;
+
+    public RecentGames(int capacity) {
+        this.games = new double[capacity * Statistics.STATS];
+    }
+
+    public int capacity() {
+        return games.length / Statistics.STATS;
+    }
+
+    /**
+     * @return number of games held, at most the capacity
+     */
+    public int size() {
+        return size;
+    }
+
+    public void add(PlayerGameData line) {
+        var slot = evict();
+        games[slot + Statistics.POINTS] = line.getPoints();
+        games[slot + Statistics.REBOUNDS] = line.getRebounds();
+        games[slot + Statistics.ASSISTS] = line.getAssists();
+        games[slot + Statistics.STEALS] = line.getSteals();
+        games[slot + Statistics.BLOCKS] = line.getBlocks();
+        games[slot + Statistics.FOULS] = line.getFouls();
+        games[slot + Statistics.TURNOVERS] = line.getTurnovers();
+        games[slot + Statistics.MINUTES_PLAYED] = line.getMinutesPlayed();
+        admit(slot);
+    }
+
+    /**
+     * Adds the game whose {@link Statistics#STATS} values start at {@code stats[from]}.
+     */
+    public void add(double[] stats, int from) {
+        var slot = evict();
+        System.arraycopy(stats, from, games, slot, Statistics.STATS);
+        admit(slot);
+    }
+
+    /**
+     * Appends the games of a later buffer, oldest first.
+     */
+    public RecentGames merge(RecentGames other) {
+        for (int i = Math.max(0, other.size - capacity()); i < other.size; i++) {
+            var from = other.slot(i);
+            var slot = evict();
+            System.arraycopy(other.games, from, games, slot, Statistics.STATS);
+            admit(slot);
+        }
+        return this;
+    }
+
+    /**
+     * Copy of capacity {@code capacity}, keeping the latest games if they do not fit.
+     */
+    public RecentGames resize(int capacity) {
+        return new RecentGames(capacity).merge(this);
+    }
+
+    /**
+     * Sums of the last {@code window} games as the {@link Statistics#SUM} block of an aggregate of those games.
+     */
+    public Statistics last(int window) {
+        var values = new double[Statistics.VALUES_LENGTH];
+        var count = Math.min(window, size);
+        if (count == size) {
+            System.arraycopy(sums, 0, values, Statistics.SUM, Statistics.STATS);
+        } else {
+            for (int i = size - count; i < size; i++) {
+                var slot = slot(i);
+                for (int stat = 0; stat < Statistics.STATS; stat++) {
+                    values[Statistics.SUM + stat] += games[slot + stat];
+                }
+            }
+        }
+        return new Statistics(count, values);
+    }
+
+    /**
+     * Games oldest first, {@link Statistics#STATS} float64 values each, after the game count (int32). Big-endian.
+     */
+    public byte[] toBytes() {
+        var bytes = ByteBuffer.allocate(Integer.BYTES + Double.BYTES * Statistics.STATS * size).putInt(size);
+        for (int i = 0; i < size; i++) {
+            var slot = slot(i);
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                bytes.putDouble(games[slot + stat]);
+            }
+        }
+        return bytes.array();
+    }
+
+    /**
+     * Reads the games into a buffer of just their count.
+     */
+    public static RecentGames fromBytes(byte[] bytes) {
+        return fromBytes(bytes, Math.max(1, ByteBuffer.wrap(bytes).getInt()));
+    }
+
+    /**
+     * Reads the games into a buffer of {@code capacity}, keeping the latest ones if they do not fit.
+     */
+    public static RecentGames fromBytes(byte[] bytes, int capacity) {
+        var buffer = ByteBuffer.wrap(bytes);
+        var recent = new RecentGames(capacity);
+        var count = buffer.getInt();
+        buffer.position(buffer.position() + Double.BYTES * Statistics.STATS * Math.max(0, count - capacity));
+        for (int i = Math.max(0, count - capacity); i < count; i++) {
+            var slot = recent.evict();
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                recent.games[slot + stat] = buffer.getDouble();
+            }
+            recent.admit(slot);
+        }
+        return recent;
+    }
+
+    /**
+     * Offset of the i-th game held, oldest first.
+     */
+    private int slot(int i) {
+        var capacity = capacity();
+        return (next - size + i + capacity) % capacity * Statistics.STATS;
+    }
+
+    /**
+     * Takes the oldest game out of the sums if the buffer is full, returns the offset of the slot to write to.
+     */
+    private int evict() {
+        var slot = next * Statistics.STATS;
+        if (size == capacity()) {
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                sums[stat] -= games[slot + stat];
+            }
+            size--;
+        }
+        return slot;
+    }
+
+    private void admit(int slot) {
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            sums[stat] += games[slot + stat];
+        }
+        next = (next + 1) % capacity();
+        size++;
+    }
+}
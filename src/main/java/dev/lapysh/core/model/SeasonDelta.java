@@ -0,0 +1,123 @@
+package dev.lapysh.core.model;
+
+import dev.lapysh.in.model.PlayerGameData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lines of one season folded into per-player and per-team partial aggregates and per-game team totals, ready to
+ * be merged into the season statistics with a single entry processor call per map.
+ * <p>
+ * Deltas of ingested lines, {@link #SeasonDelta()}, hold moments only and keep the values of the lines in
+ * {@link LineValues}, so folding a line allocates no sketch nor recent games: the entry processor pushes the values
+ * into those of the season's aggregates. Deltas replacing whole seasons, {@link #complete(int)}, fold the lines into
+ * complete aggregates whose recent games hold up to {@code windowCapacity} ({@code nba.window.size}) games.
+ */
+public final class SeasonDelta {
+
+    private final Map<String, Statistics> players = new HashMap<>();
+    private final Map<String, Statistics> teams = new HashMap<>();
+    private final Map<String, LineValues> playerLines = new HashMap<>();
+    private final Map<String, LineValues> teamLines = new HashMap<>();
+    private final Map<String, String> playerTeams = new HashMap<>();
+    private final Map<OpenGame.Key, OpenGame> games = new HashMap<>();
+    // 0 for a delta of ingested lines
+    private final int windowCapacity;
+    private int lines;
+
+    public SeasonDelta() {
+        this(0);
+    }
+
+    private SeasonDelta(int windowCapacity) {
+        this.windowCapacity = windowCapacity;
+    }
+
+    public static SeasonDelta complete(int windowCapacity) {
+        return new SeasonDelta(windowCapacity);
+    }
+
+    public static SeasonDelta of(List<PlayerGameData> lines) {
+        var delta = new SeasonDelta();
+        lines.forEach(delta::add);
+        return delta;
+    }
+
+    public SeasonDelta add(PlayerGameData line) {
+        if (windowCapacity == 0) {
+            players.computeIfAbsent(line.getPlayerName(), name -> new Statistics()).add(line);
+            teams.computeIfAbsent(line.getTeamName(), name -> new Statistics()).add(line);
+            playerLines.computeIfAbsent(line.getPlayerName(), name -> new LineValues()).add(line);
+            teamLines.computeIfAbsent(line.getTeamName(), name -> new LineValues()).add(line);
+        } else {
+            players.computeIfAbsent(line.getPlayerName(), name -> Statistics.player(windowCapacity))
+                .add(line).addRecent(line);
+            teams.computeIfAbsent(line.getTeamName(), name -> Statistics.team()).add(line);
+        }
+        playerTeams.put(line.getPlayerName(), line.getTeamName());
+        if (line.getGameId() != null) {
+            games.computeIfAbsent(new OpenGame.Key(line.getTeamName(), line.getGameId().toString()),
+                key -> new OpenGame(key.team(), key.gameId())).add(line);
+        }
+        lines++;
+        return this;
+    }
+
+    /**
+     * Folds another partial aggregate of the same season into this one.
+     */
+    public SeasonDelta merge(SeasonDelta other) {
+        other.players.forEach((name, stats) -> players.computeIfAbsent(name, n -> stats.empty()).merge(stats));
+        other.teams.forEach((name, stats) -> teams.computeIfAbsent(name, n -> stats.empty()).merge(stats));
+        other.playerLines.forEach((name, values) ->
+            playerLines.computeIfAbsent(name, n -> new LineValues()).merge(values));
+        other.teamLines.forEach((name, values) -> teamLines.computeIfAbsent(name, n -> new LineValues()).merge(values));
+        playerTeams.putAll(other.playerTeams);
+        other.games.forEach((key, game) ->
+            games.computeIfAbsent(key, k -> new OpenGame(k.team(), k.gameId())).merge(game));
+        lines += other.lines;
+        return this;
+    }
+
+    public Map<String, Statistics> players() {
+        return players;
+    }
+
+    public Map<String, Statistics> teams() {
+        return teams;
+    }
+
+    /**
+     * @return values of the lines of every player, in the order they were folded in; empty for a complete delta
+     */
+    public Map<String, LineValues> playerLines() {
+        return playerLines;
+    }
+
+    public Map<String, LineValues> teamLines() {
+        return teamLines;
+    }
+
+    /**
+     * @return team of every player of the delta, the one of the last line folded in
+     */
+    public Map<String, String> playerTeams() {
+        return playerTeams;
+    }
+
+    /**
+     * @return totals of every team in every game of the delta, lines without a game are left out
+     */
+    public Map<OpenGame.Key, OpenGame> games() {
+        return games;
+    }
+
+    /**
+     * @return number of lines folded into this delta
+     */
+    public int lines() {
+        return lines;
+    }
+}
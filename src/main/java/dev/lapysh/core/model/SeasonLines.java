@@ -0,0 +1,75 @@
+package dev.lapysh.core.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Value of an {@code ingestedLinesMap} entry: the {@code (gameId, playerName)} keys of a season, as a Bloom filter
+ * of the lines written to {@code players_data} and the keys reserved by ingestions in flight.
+ * <p>
+ * A key is reserved before its line is written, then committed into the filter once the row is written or
+ * released if the write failed. While it is reserved, every other copy of the line is a duplicate. A reservation
+ * neither committed nor released by its expiry time, e.g. of a member that crashed, is dropped. Keys are given as
+ * their two hashes, see {@link dev.lapysh.in.model.LineKey}.
+ * <p>
+ * A season being rebuilt is fenced until {@code fencedUntil} (epoch milliseconds): no keys are reserved, so no
+ * line is written to it while its raw lines are read.
+ */
+public final class SeasonLines {
+
+    // Outcomes of reserve
+    public static final byte NEW = 0;
+    public static final byte SEEN = 1;
+    public static final byte PENDING = 2;
+
+    public final BloomFilter filter;
+    // Expiry time in epoch milliseconds, by reserved key
+    public final Map<Key, Long> pending;
+    public long fencedUntil;
+
+    public SeasonLines(BloomFilter filter) {
+        this(filter, new HashMap<>(), 0);
+    }
+
+    public SeasonLines(BloomFilter filter, Map<Key, Long> pending, long fencedUntil) {
+        this.filter = filter;
+        this.pending = pending;
+        this.fencedUntil = fencedUntil;
+    }
+
+    public boolean fenced(long now) {
+        return fencedUntil > now;
+    }
+
+    /**
+     * Reserves a key unless another ingestion holds it.
+     *
+     * @return {@link #PENDING} if the key is reserved already, otherwise {@link #SEEN} if the filter might contain it
+     * and {@link #NEW} if not; the key is reserved in both cases
+     */
+    public byte reserve(long h1, long h2, long expiresAt) {
+        if (pending.putIfAbsent(new Key(h1, h2), expiresAt) != null) {
+            return PENDING;
+        }
+        return filter.mightContain(h1, h2) ? SEEN : NEW;
+    }
+
+    public void commit(long h1, long h2) {
+        pending.remove(new Key(h1, h2));
+        filter.put(h1, h2);
+    }
+
+    public void release(long h1, long h2) {
+        pending.remove(new Key(h1, h2));
+    }
+
+    /**
+     * Drops the reservations expired at {@code now}.
+     */
+    public void expire(long now) {
+        pending.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    public record Key(long h1, long h2) {
+    }
+}
@@ -0,0 +1,133 @@
+package dev.lapysh.core.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Value of a season entry of {@code playerDataMap} / {@code teamDataMap}: the statistics of all players (teams)
+ * of the season plus change tracking.
+ * <p>
+ * Every merge bumps {@code version} and stamps the entities it changed with it, so the entities changed after
+ * version {@code v} are the ones stamped with a greater version. {@code epoch} names one lineage of versions: a
+ * season loaded from the database starts a new epoch at version 0, and versions of different epochs are not
+ * comparable.
+ * <p>
+ * {@code teams} holds the current team of every player of a {@code playerDataMap} season and is empty for
+ * {@code teamDataMap} seasons.
+ * <p>
+ * {@code games} holds the per-game totals of the teams of a {@code teamDataMap} season, {@code null} for
+ * {@code playerDataMap} seasons and until the first line with a game arrives.
+ */
+public final class SeasonStatistics {
+
+    public final long epoch;
+    // Bumped after the entities of a merge are stamped: a write-behind store reading it first misses none of them
+    public volatile long version;
+    public final Map<String, Statistics> entities;
+    public final Map<String, Long> versions;
+    public final Map<String, String> teams;
+    public TeamGames games;
+
+    public SeasonStatistics(long epoch) {
+        this(epoch, 0, new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+
+    public SeasonStatistics(long epoch,
+                            long version,
+                            Map<String, Statistics> entities,
+                            Map<String, Long> versions,
+                            Map<String, String> teams) {
+        this.epoch = epoch;
+        this.version = version;
+        this.entities = entities;
+        this.versions = versions;
+        this.teams = teams;
+    }
+
+    /**
+     * Season as it is stored in the database, at version 0 of a new epoch.
+     */
+    public static SeasonStatistics loaded(Map<String, Statistics> entities, Map<String, String> teams) {
+        var season = new SeasonStatistics(newEpoch());
+        season.entities.putAll(entities);
+        season.teams.putAll(teams);
+        entities.keySet().forEach(name -> season.versions.put(name, 0L));
+        return season;
+    }
+
+    public static long newEpoch() {
+        long epoch;
+        do {
+            epoch = ThreadLocalRandom.current().nextLong();
+        } while (epoch == 0);
+        return epoch;
+    }
+
+    /**
+     * Folds {@code deltas[i]} into the statistics of {@code names[i]} as one new version, adds the values of its
+     * lines {@code lines[i]}, if given, to their sketch and recent games and moves the player to {@code teams[i]}, if
+     * given. Recent games are kept in buffers of {@code windowCapacity}, {@code 0} keeps the capacity they have; a
+     * new entity is a player with recent games if it is positive, a team otherwise.
+     */
+    public void merge(String[] names, Statistics[] deltas, LineValues[] lines, String[] teams, int windowCapacity) {
+        var next = version + 1;
+        for (int i = 0; i < names.length; i++) {
+            var current = entities.get(names[i]);
+            if (current == null) {
+                current = windowCapacity > 0 ? Statistics.player(windowCapacity) : Statistics.team();
+            }
+            var merged = current.withWindow(windowCapacity).merge(deltas[i]);
+            if (lines != null && lines[i] != null) {
+                merged.addLines(lines[i]);
+            }
+            entities.put(names[i], merged);
+            versions.put(names[i], next);
+            if (teams != null && teams[i] != null) {
+                this.teams.put(names[i], teams[i]);
+            }
+        }
+        version = next;
+    }
+
+    /**
+     * Adds the team totals of games seen at {@code time}, under the version of the merge of their lines, keeping at
+     * most {@code maxOpen} games open.
+     */
+    public void addGames(Collection<OpenGame> games, long time, int maxOpen) {
+        if (games.isEmpty()) {
+            return;
+        }
+        if (this.games == null) {
+            this.games = new TeamGames();
+        }
+        this.games.add(games, time, maxOpen);
+    }
+
+    /**
+     * Closes games as one new version, see {@link TeamGames#close(String, long)}.
+     *
+     * @return number of games closed
+     */
+    public int closeGames(String gameId, long cutoff) {
+        var closed = games == null ? 0 : games.close(gameId, cutoff);
+        if (closed > 0) {
+            version++;
+        }
+        return closed;
+    }
+
+    /**
+     * @return the entities changed after {@code version} of this epoch
+     */
+    public Map<String, Statistics> changedSince(long version) {
+        var changed = new HashMap<String, Statistics>();
+        versions.forEach((name, changedIn) -> {
+            if (changedIn > version) {
+                changed.put(name, entities.get(name));
+            }
+        });
+        return changed;
+    }
+}
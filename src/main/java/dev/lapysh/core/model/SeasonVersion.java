@@ -0,0 +1,7 @@
+package dev.lapysh.core.model;
+
+/**
+ * Identifies one state of a season entry, see {@link SeasonStatistics}: equal versions mean equal statistics.
+ */
+public record SeasonVersion(long epoch, long version) {
+}
@@ -1,11 +1,310 @@
 package dev.lapysh.core.model;
 
-public record Statistics(ContinuousAverage avgPoints,
-                         ContinuousAverage avgRebounds,
-                         ContinuousAverage avgAssists,
-                         ContinuousAverage avgSteals,
-                         ContinuousAverage avgBlocks,
-                         ContinuousAverage avgFouls,
-                         ContinuousAverage avgTurnovers,
-                         ContinuousAverage avgMinutesPlayed) {
+import dev.lapysh.in.model.PlayerGameData;
+
+import java.util.List;
+
+/**
+ * Running aggregate of the per-game stats of a player (team) in a season.
+ * One shared count {@code n} and per stat the sum, the sum of squared differences from the mean ({@code M2}), the
+ * minimum and the maximum in a single contiguous {@code double[]}; lines and other aggregates are folded in place,
+ * so an update allocates nothing but the occasional wider sketch bucket range. Averages and deviations are derived
+ * on read. The state is private: copies handed out, e.g. to leaderboards, are taken with {@link #summary()}.
+ * <p>
+ * A line updates {@code M2} with Welford's method and two aggregates are combined with Chan's formula, so partial
+ * aggregates built in any split of the lines merge to the same result as folding the lines one by one.
+ * <p>
+ * {@code sketch} holds the distribution of every stat for quantiles and {@code recent} the last games of a player for
+ * windowed averages. Both are allocated with the aggregate, by {@link #player(int)}, {@link #team()} or
+ * {@link #empty()}, never while folding in. Summaries such as leaderboard rows, careers and the partial aggregates
+ * of ingested lines carry neither, teams carry no recent games as their lines are not games. The values of ingested
+ * lines reach the sketch and recent games of the season's aggregate with {@link #addLines(LineValues)}. Rows loaded
+ * from the database before sketches (recent games) were stored have none until the season is rebuilt.
+ */
+public final class Statistics {
+
+    public static final int POINTS = 0;
+    public static final int REBOUNDS = 1;
+    public static final int ASSISTS = 2;
+    public static final int STEALS = 3;
+    public static final int BLOCKS = 4;
+    public static final int FOULS = 5;
+    public static final int TURNOVERS = 6;
+    public static final int MINUTES_PLAYED = 7;
+    public static final int STATS = 8;
+
+    // Names of the stats in responses, by stat
+    public static final List<String> NAMES = List.of(
+        "points",
+        "rebounds",
+        "assists",
+        "steals",
+        "blocks",
+        "fouls",
+        "turnovers",
+        "minutesPlayed"
+    );
+
+    // Names of the averages in responses and query parameters, by stat
+    public static final List<String> AVERAGES = List.of(
+        "avgPoints",
+        "avgRebounds",
+        "avgAssists",
+        "avgSteals",
+        "avgBlocks",
+        "avgFouls",
+        "avgTurnovers",
+        "avgMinutesPlayed"
+    );
+
+    // Offsets of the per-stat blocks in values
+    public static final int SUM = 0;
+    public static final int M2 = SUM + STATS;
+    public static final int MIN = M2 + STATS;
+    public static final int MAX = MIN + STATS;
+    public static final int VALUES_LENGTH = MAX + STATS;
+
+    private long n;
+    private final double[] values;
+    private final QuantileSketch sketch;
+    private final RecentGames recent;
+
+    /**
+     * Empty summary, with neither sketch nor recent games.
+     */
+    public Statistics() {
+        this(0, new double[VALUES_LENGTH]);
+    }
+
+    public Statistics(long n, double[] values) {
+        this(n, values, null, null);
+    }
+
+    public Statistics(long n, double[] values, QuantileSketch sketch, RecentGames recent) {
+        this.n = n;
+        this.values = values;
+        this.sketch = sketch;
+        this.recent = recent;
+    }
+
+    /**
+     * Empty aggregate of a player, keeping its last {@code windowCapacity} games.
+     */
+    public static Statistics player(int windowCapacity) {
+        return new Statistics(0, new double[VALUES_LENGTH], new QuantileSketch(), new RecentGames(windowCapacity));
+    }
+
+    public static Statistics team() {
+        return new Statistics(0, new double[VALUES_LENGTH], new QuantileSketch(), null);
+    }
+
+    /**
+     * Empty aggregate with the same state as this one: a sketch if this has one, recent games of the same capacity.
+     */
+    public Statistics empty() {
+        return new Statistics(0, new double[VALUES_LENGTH], sketch == null ? null : new QuantileSketch(),
+            recent == null ? null : new RecentGames(recent.capacity()));
+    }
+
+    /**
+     * This aggregate, or a copy sharing its values and sketch whose recent games are resized to
+     * {@code windowCapacity}. Aggregates without recent games and a capacity of {@code 0} are kept as they are.
+     */
+    public Statistics withWindow(int windowCapacity) {
+        if (recent == null || windowCapacity == 0 || recent.capacity() == windowCapacity) {
+            return this;
+        }
+        return new Statistics(n, values, sketch, recent.resize(windowCapacity));
+    }
+
+    /**
+     * Copy of the count and the values, without sketch and recent games.
+     */
+    public Statistics summary() {
+        return new Statistics(n, values.clone());
+    }
+
+    public long n() {
+        return n;
+    }
+
+    /**
+     * Backing array laid out by {@link #SUM}, {@link #M2}, {@link #MIN} and {@link #MAX}, not to be modified.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    public QuantileSketch sketch() {
+        return sketch;
+    }
+
+    public RecentGames recent() {
+        return recent;
+    }
+
+    public Statistics add(PlayerGameData line) {
+        add(POINTS, line.getPoints());
+        add(REBOUNDS, line.getRebounds());
+        add(ASSISTS, line.getAssists());
+        add(STEALS, line.getSteals());
+        add(BLOCKS, line.getBlocks());
+        add(FOULS, line.getFouls());
+        add(TURNOVERS, line.getTurnovers());
+        add(MINUTES_PLAYED, line.getMinutesPlayed());
+        n++;
+        return this;
+    }
+
+    /**
+     * Folds in one value of every stat, e.g. the totals of a team in one game.
+     */
+    public Statistics add(double[] stats) {
+        for (int stat = 0; stat < STATS; stat++) {
+            add(stat, stats[stat]);
+        }
+        n++;
+        return this;
+    }
+
+    /**
+     * Keeps a line of a player among its recent games, it is folded in with {@link #add(PlayerGameData)}. A no-op
+     * for aggregates without recent games.
+     */
+    public Statistics addRecent(PlayerGameData line) {
+        if (recent != null) {
+            recent.add(line);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the values of lines already folded into the moments, e.g. by merging the partial aggregate they came with,
+     * to the sketch and the recent games. A no-op for summaries.
+     */
+    public Statistics addLines(LineValues lines) {
+        var stats = lines.values();
+        for (int line = 0; line < lines.size(); line++) {
+            var from = line * STATS;
+            if (sketch != null) {
+                for (int stat = 0; stat < STATS; stat++) {
+                    sketch.add(stat, stats[from + stat]);
+                }
+            }
+            if (recent != null) {
+                recent.add(stats, from);
+            }
+        }
+        return this;
+    }
+
+    private void add(int stat, double value) {
+        var mean = average(stat);
+        values[SUM + stat] += value;
+        values[M2 + stat] += (value - mean) * (value - values[SUM + stat] / (n + 1));
+        values[MIN + stat] = n == 0 ? value : Math.min(values[MIN + stat], value);
+        values[MAX + stat] = n == 0 ? value : Math.max(values[MAX + stat], value);
+        if (sketch != null) {
+            sketch.add(stat, value);
+        }
+    }
+
+    /**
+     * Folds another aggregate of the same player (team) into this one.
+     */
+    public Statistics merge(Statistics other) {
+        if (other.n == 0) {
+            return this;
+        }
+        if (sketch != null && other.sketch != null) {
+            sketch.merge(other.sketch);
+        }
+        if (recent != null && other.recent != null) {
+            recent.merge(other.recent);
+        }
+        if (n == 0) {
+            System.arraycopy(other.values, 0, values, 0, VALUES_LENGTH);
+            n = other.n;
+            return this;
+        }
+        var total = n + other.n;
+        for (int stat = 0; stat < STATS; stat++) {
+            var delta = other.average(stat) - average(stat);
+            values[M2 + stat] += other.values[M2 + stat] + delta * delta * n / total * other.n;
+            values[SUM + stat] += other.values[SUM + stat];
+            values[MIN + stat] = Math.min(values[MIN + stat], other.values[MIN + stat]);
+            values[MAX + stat] = Math.max(values[MAX + stat], other.values[MAX + stat]);
+        }
+        n = total;
+        return this;
+    }
+
+    public double average(int stat) {
+        return n == 0 ? 0 : values[SUM + stat] / n;
+    }
+
+    /**
+     * Population variance of the games folded in.
+     */
+    public double variance(int stat) {
+        // Rounding may leave M2 slightly below zero for constant stats
+        return n == 0 ? 0 : Math.max(0, values[M2 + stat] / n);
+    }
+
+    public double standardDeviation(int stat) {
+        return Math.sqrt(variance(stat));
+    }
+
+    public double min(int stat) {
+        return values[MIN + stat];
+    }
+
+    public double max(int stat) {
+        return values[MAX + stat];
+    }
+
+    /**
+     * Lower {@code q}-quantile of the games of {@code stat}, within the bounds of the extremes.
+     *
+     * @throws IllegalStateException if the sketch does not cover all games
+     */
+    public double quantile(int stat, double q) {
+        if (n == 0 || sketch == null || sketch.count(stat) != n) {
+            throw new IllegalStateException("Quantiles cover " + (sketch == null ? 0 : sketch.count(stat)) + " of "
+                + n + " games, the season needs a rebuild");
+        }
+        return Math.clamp(sketch.quantile(stat, q), min(stat), max(stat));
+    }
+
+    public double avgPoints() {
+        return average(POINTS);
+    }
+
+    public double avgRebounds() {
+        return average(REBOUNDS);
+    }
+
+    public double avgAssists() {
+        return average(ASSISTS);
+    }
+
+    public double avgSteals() {
+        return average(STEALS);
+    }
+
+    public double avgBlocks() {
+        return average(BLOCKS);
+    }
+
+    public double avgFouls() {
+        return average(FOULS);
+    }
+
+    public double avgTurnovers() {
+        return average(TURNOVERS);
+    }
+
+    public double avgMinutesPlayed() {
+        return average(MINUTES_PLAYED);
+    }
 }
@@ -0,0 +1,185 @@
+package dev.lapysh.core.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-game totals of the teams of a season, kept in the {@code teamDataMap} season entry next to the statistics
+ * folded line by line.
+ * <p>
+ * The lines of a team in a game add up in an {@link OpenGame} until the game is closed, on request or once no line
+ * arrived for it for {@code nba.team-games.timeout}. Its totals are then folded into the team's aggregate of games
+ * in {@code totals}, whose averages are per game rather than per player line. At most
+ * {@code nba.team-games.max-open-per-season} games are open per season, beyond it the one with the oldest last line
+ * is closed early. Lines of a game that is already closed no longer count towards its totals.
+ * <p>
+ * The buffer is stored as {@link #toBytes()} in the {@code team_games} row of its season.
+ */
+public final class TeamGames {
+
+    public final Map<String, Statistics> totals;
+    public final Map<OpenGame.Key, OpenGame> open;
+    public final Set<OpenGame.Key> closed;
+
+    public TeamGames() {
+        this(new HashMap<>(), new HashMap<>(), new HashSet<>());
+    }
+
+    public TeamGames(Map<String, Statistics> totals, Map<OpenGame.Key, OpenGame> open, Set<OpenGame.Key> closed) {
+        this.totals = totals;
+        this.open = open;
+        this.closed = closed;
+    }
+
+    /**
+     * Games of a season replaced as a whole, e.g. by a rebuild, all of them closed; {@code null} without games.
+     */
+    public static TeamGames closed(Collection<OpenGame> games) {
+        if (games.isEmpty()) {
+            return null;
+        }
+        var teamGames = new TeamGames();
+        games.forEach(game -> teamGames.restore(game, Long.MAX_VALUE));
+        return teamGames;
+    }
+
+    /**
+     * Adds the lines of games seen at {@code time}, then closes games beyond {@code maxOpen}.
+     */
+    public void add(Collection<OpenGame> games, long time, int maxOpen) {
+        for (var game : games) {
+            var key = game.key();
+            if (closed.contains(key)) {
+                continue;
+            }
+            var current = open.computeIfAbsent(key, k -> new OpenGame(k.team(), k.gameId()));
+            current.merge(game);
+            current.lastLineAt = time;
+        }
+        evict(maxOpen);
+    }
+
+    /**
+     * Adds a game restored from the raw lines, closed if its last line is not after {@code cutoff}.
+     */
+    public void restore(OpenGame game, long cutoff) {
+        if (game.lastLineAt <= cutoff) {
+            close(game);
+        } else {
+            open.put(game.key(), game);
+        }
+    }
+
+    /**
+     * Closes the open games of {@code gameId}, if given, and the ones whose last line is not after {@code cutoff}.
+     *
+     * @return number of games closed
+     */
+    public int close(String gameId, long cutoff) {
+        var closing = open.values().stream()
+            .filter(game -> game.gameId.equals(gameId) || game.lastLineAt <= cutoff)
+            .toList();
+        closing.forEach(this::close);
+        return closing.size();
+    }
+
+    /**
+     * Closes the games with the oldest last line until at most {@code maxOpen} games are open.
+     */
+    public void evict(int maxOpen) {
+        if (open.size() <= maxOpen) {
+            return;
+        }
+        var oldest = new ArrayList<>(open.values());
+        oldest.sort(Comparator.comparingLong(game -> game.lastLineAt));
+        oldest.subList(0, oldest.size() - maxOpen).forEach(this::close);
+    }
+
+    /**
+     * Totals by team ({@code n} as int64 and the values), open games (team, game id, totals and {@code lastLineAt})
+     * and the keys of closed games, each list after its int32 length. Names in modified UTF-8, numbers big-endian.
+     */
+    public byte[] toBytes() {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(totals.size());
+            for (var team : totals.entrySet()) {
+                out.writeUTF(team.getKey());
+                out.writeLong(team.getValue().n());
+                for (var value : team.getValue().values()) {
+                    out.writeDouble(value);
+                }
+            }
+            out.writeInt(open.size());
+            for (var game : open.values()) {
+                out.writeUTF(game.team);
+                out.writeUTF(game.gameId);
+                for (var total : game.totals) {
+                    out.writeDouble(total);
+                }
+                out.writeLong(game.lastLineAt);
+            }
+            out.writeInt(closed.size());
+            for (var key : closed) {
+                out.writeUTF(key.team());
+                out.writeUTF(key.gameId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TeamGames fromBytes(byte[] bytes) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            var teamCount = in.readInt();
+            Map<String, Statistics> totals = HashMap.newHashMap(teamCount);
+            for (int i = 0; i < teamCount; i++) {
+                var team = in.readUTF();
+                var n = in.readLong();
+                var values = new double[Statistics.VALUES_LENGTH];
+                for (int v = 0; v < values.length; v++) {
+                    values[v] = in.readDouble();
+                }
+                totals.put(team, new Statistics(n, values));
+            }
+            var openCount = in.readInt();
+            Map<OpenGame.Key, OpenGame> open = HashMap.newHashMap(openCount);
+            for (int i = 0; i < openCount; i++) {
+                var team = in.readUTF();
+                var gameId = in.readUTF();
+                var gameTotals = new double[Statistics.STATS];
+                for (int stat = 0; stat < gameTotals.length; stat++) {
+                    gameTotals[stat] = in.readDouble();
+                }
+                var game = new OpenGame(team, gameId, gameTotals, in.readLong());
+                open.put(game.key(), game);
+            }
+            var closedCount = in.readInt();
+            Set<OpenGame.Key> closed = HashSet.newHashSet(closedCount);
+            for (int i = 0; i < closedCount; i++) {
+                closed.add(new OpenGame.Key(in.readUTF(), in.readUTF()));
+            }
+            return new TeamGames(totals, open, closed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void close(OpenGame game) {
+        open.remove(game.key());
+        closed.add(game.key());
+        totals.computeIfAbsent(game.team, team -> new Statistics()).add(game.totals);
+    }
+}
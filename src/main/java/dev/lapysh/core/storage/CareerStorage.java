@@ -0,0 +1,103 @@
+package dev.lapysh.core.storage;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import dev.lapysh.core.CareerProcessor;
+import dev.lapysh.core.model.Career;
+import dev.lapysh.core.model.SeasonDelta;
+import dev.lapysh.core.model.Statistics;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Careers of players and teams, one entry per player (team) in {@code playerCareerMap} / {@code teamCareerMap},
+ * kept in step with the season maps by applying the same deltas.
+ */
+@Singleton
+public class CareerStorage {
+
+    private final IMap<String, Career> playerCareerMap;
+    private final IMap<String, Career> teamCareerMap;
+    private final StageTimer playerSubmit;
+    private final StageTimer teamSubmit;
+
+    public CareerStorage(HazelcastInstance hcInst, StageMetrics metrics) {
+        this.playerCareerMap = hcInst.getMap("playerCareerMap");
+        this.teamCareerMap = hcInst.getMap("teamCareerMap");
+        this.playerSubmit = metrics.submit(playerCareerMap.getName());
+        this.teamSubmit = metrics.submit(teamCareerMap.getName());
+    }
+
+    public List<String> mapNames() {
+        return List.of("playerCareerMap", "teamCareerMap");
+    }
+
+    /**
+     * Merges the delta of a season into the careers of its players and teams, one call per map.
+     */
+    public Mono<Void> apply(String seasonName, SeasonDelta delta) {
+        return Mono.when(
+            playerSubmit.time(apply(playerCareerMap, seasonName, delta.players(), false)),
+            teamSubmit.time(apply(teamCareerMap, seasonName, delta.teams(), false))
+        );
+    }
+
+    /**
+     * Replaces a season in all careers: careers of players (teams) missing from {@code season} lose it.
+     */
+    public Mono<Void> replace(String seasonName, SeasonDelta season) {
+        return Mono.when(
+            replace(playerCareerMap, seasonName, season.players()),
+            replace(teamCareerMap, seasonName, season.teams())
+        );
+    }
+
+    private Mono<Void> replace(IMap<String, Career> map, String seasonName, Map<String, Statistics> entities) {
+        var processor = processor(seasonName, entities, true);
+        // Existing careers first, then the ones of players (teams) new to the cluster
+        return Mono.fromRunnable(() -> map.executeOnEntries(processor))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(apply(map, seasonName, entities, true));
+    }
+
+    private Mono<Void> apply(IMap<String, Career> map,
+                             String seasonName,
+                             Map<String, Statistics> entities,
+                             boolean replace) {
+        if (entities.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromCompletionStage(() ->
+                map.submitToKeys(Set.copyOf(entities.keySet()), processor(seasonName, entities, replace)))
+            .then();
+    }
+
+    /**
+     * Careers keep neither sketches nor recent games, so deltas are shipped without them.
+     */
+    private static CareerProcessor processor(String seasonName, Map<String, Statistics> entities, boolean replace) {
+        var names = new String[entities.size()];
+        var deltas = new Statistics[entities.size()];
+        var i = 0;
+        for (var entity : entities.entrySet()) {
+            names[i] = entity.getKey();
+            deltas[i++] = entity.getValue().summary();
+        }
+        return new CareerProcessor(seasonName, names, deltas, replace);
+    }
+
+    public Mono<Career> getPlayerCareer(String playerName) {
+        return Mono.fromCompletionStage(() -> playerCareerMap.getAsync(playerName));
+    }
+
+    public Mono<Career> getTeamCareer(String teamName) {
+        return Mono.fromCompletionStage(() -> teamCareerMap.getAsync(teamName));
+    }
+}
@@ -0,0 +1,165 @@
+package dev.lapysh.core.storage;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import dev.lapysh.cfg.TeamGamesConfiguration;
+import dev.lapysh.cfg.WindowConfiguration;
+import dev.lapysh.core.GameCloseProcessor;
+import dev.lapysh.core.MapEntryProcessor;
+import dev.lapysh.core.SeasonEntityProcessor;
+import dev.lapysh.core.SeasonPageProcessor;
+import dev.lapysh.core.SeasonReplaceProcessor;
+import dev.lapysh.core.TeamGamesProcessor;
+import dev.lapysh.core.TopProcessor;
+import dev.lapysh.core.model.PageQuery;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonDelta;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+import dev.lapysh.core.model.TeamGames;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One map entry per season holding the statistics of all its players (teams). Whole seasons are read through the
+ * maps' near caches if {@code nba.near-cache.enabled}, see {@link dev.lapysh.cfg.HazelcastFactory}.
+ */
+@Singleton
+public class SeasonStatisticsStorage implements StatisticsStorage {
+
+    private final IMap<String, SeasonStatistics> playerDataMap;
+    private final IMap<String, SeasonStatistics> teamDataMap;
+    private final WindowConfiguration window;
+    private final TeamGamesConfiguration games;
+    private final StageTimer playerSubmit;
+    private final StageTimer teamSubmit;
+
+    public SeasonStatisticsStorage(HazelcastInstance hcInst,
+                                   WindowConfiguration window,
+                                   TeamGamesConfiguration games,
+                                   StageMetrics metrics) {
+        this.playerDataMap = hcInst.getMap("playerDataMap");
+        this.teamDataMap = hcInst.getMap("teamDataMap");
+        this.window = window;
+        this.games = games;
+        this.playerSubmit = metrics.submit(playerDataMap.getName());
+        this.teamSubmit = metrics.submit(teamDataMap.getName());
+    }
+
+    @Override
+    public List<String> mapNames() {
+        return List.of("playerDataMap", "teamDataMap");
+    }
+
+    @Override
+    public Mono<Void> apply(String seasonName, SeasonDelta delta) {
+        return Mono.when(
+            playerSubmit.time(Mono.fromCompletionStage(() -> playerDataMap.submitToKey(seasonName,
+                MapEntryProcessor.players(playerDataMap.getName(), delta.players(), delta.playerLines(),
+                    delta.playerTeams(), window.size()))
+            )),
+            teamSubmit.time(Mono.fromCompletionStage(() -> teamDataMap.submitToKey(seasonName,
+                MapEntryProcessor.teams(teamDataMap.getName(), delta.teams(), delta.teamLines(),
+                    delta.games().values(), games.maxOpenPerSeason()))
+            ))
+        );
+    }
+
+    /**
+     * The games of the replacing season are all closed.
+     */
+    @Override
+    public Mono<Void> replace(String seasonName, SeasonDelta season) {
+        var teams = SeasonStatistics.loaded(season.teams(), Map.of());
+        teams.games = TeamGames.closed(season.games().values());
+        return Mono.when(
+            Mono.fromCompletionStage(() -> playerDataMap.submitToKey(seasonName, new SeasonReplaceProcessor(
+                playerDataMap.getName(), SeasonStatistics.loaded(season.players(), season.playerTeams())))),
+            Mono.fromCompletionStage(() -> teamDataMap.submitToKey(seasonName, new SeasonReplaceProcessor(
+                teamDataMap.getName(), teams)))
+        );
+    }
+
+    @Override
+    public Mono<SeasonStatistics> getPlayerStatistics(String seasonName) {
+        return getSeason(playerDataMap, seasonName);
+    }
+
+    @Override
+    public Mono<SeasonStatistics> getTeamStatistics(String seasonName) {
+        return getSeason(teamDataMap, seasonName);
+    }
+
+    @Override
+    public Mono<Statistics> getPlayer(String seasonName, String playerName) {
+        return getEntity(playerDataMap, seasonName, playerName);
+    }
+
+    @Override
+    public Mono<Statistics> getTeam(String seasonName, String teamName) {
+        return getEntity(teamDataMap, seasonName, teamName);
+    }
+
+    private Mono<Statistics> getEntity(IMap<String, SeasonStatistics> map, String seasonName, String name) {
+        return Mono.fromCompletionStage(() -> map.submitToKey(seasonName, new SeasonEntityProcessor(name)));
+    }
+
+    @Override
+    public Mono<Ranking> getTopPlayers(String seasonName, int stat, int limit, long minGames) {
+        return getTop(playerDataMap, seasonName, stat, limit, minGames);
+    }
+
+    @Override
+    public Mono<Ranking> getTopTeams(String seasonName, int stat, int limit, long minGames) {
+        return getTop(teamDataMap, seasonName, stat, limit, minGames);
+    }
+
+    private Mono<Ranking> getTop(IMap<String, SeasonStatistics> map,
+                                 String seasonName,
+                                 int stat,
+                                 int limit,
+                                 long minGames) {
+        return Mono.fromCompletionStage(() ->
+            map.submitToKey(seasonName, new TopProcessor(map.getName(), stat, limit, minGames)));
+    }
+
+    @Override
+    public Mono<Ranking> getPlayerPage(String seasonName, PageQuery query) {
+        return getPage(playerDataMap, seasonName, query);
+    }
+
+    @Override
+    public Mono<Ranking> getTeamPage(String seasonName, PageQuery query) {
+        return getPage(teamDataMap, seasonName, query);
+    }
+
+    private Mono<Ranking> getPage(IMap<String, SeasonStatistics> map, String seasonName, PageQuery query) {
+        return Mono.fromCompletionStage(() -> map.submitToKey(seasonName, new SeasonPageProcessor(query)));
+    }
+
+    @Override
+    public Mono<Ranking> getTeamGames(String seasonName) {
+        return Mono.fromCompletionStage(() -> teamDataMap.submitToKey(seasonName, new TeamGamesProcessor()));
+    }
+
+    @Override
+    public Mono<Integer> closeGame(String seasonName, String gameId) {
+        return Mono.fromCompletionStage(() -> teamDataMap.submitToKey(seasonName, new GameCloseProcessor(gameId, 0)));
+    }
+
+    /**
+     * Closes the games of the seasons owned by this member whose last line is not after {@code cutoff}.
+     */
+    public void closeIdleGames(long cutoff) {
+        teamDataMap.executeOnKeys(teamDataMap.localKeySet(), new GameCloseProcessor(null, cutoff));
+    }
+
+    private Mono<SeasonStatistics> getSeason(IMap<String, SeasonStatistics> map, String seasonName) {
+        return Mono.fromCompletionStage(() -> map.getAsync(seasonName));
+    }
+}
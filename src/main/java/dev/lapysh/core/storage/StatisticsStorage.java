@@ -0,0 +1,73 @@
+package dev.lapysh.core.storage;
+
+import dev.lapysh.core.model.PageQuery;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.SeasonDelta;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Player and team statistics in Hazelcast, see {@link SeasonStatisticsStorage}.
+ */
+public interface StatisticsStorage {
+
+    /**
+     * Names of the Hazelcast maps backing the statistics.
+     */
+    List<String> mapNames();
+
+    /**
+     * Merges the partial aggregates of already validated lines of one season into the player and team statistics.
+     */
+    Mono<Void> apply(String seasonName, SeasonDelta delta);
+
+    /**
+     * Replaces all player and team statistics of a season, e.g. with the result of a rebuild.
+     */
+    Mono<Void> replace(String seasonName, SeasonDelta season);
+
+    /**
+     * The whole season entry of the players, empty for a missing season. Its {@code epoch} and {@code version}
+     * identify the statistics read.
+     */
+    Mono<SeasonStatistics> getPlayerStatistics(String seasonName);
+
+    Mono<SeasonStatistics> getTeamStatistics(String seasonName);
+
+    /**
+     * Statistics of one player of a season, empty if the player has not played in it.
+     */
+    Mono<Statistics> getPlayer(String seasonName, String playerName);
+
+    Mono<Statistics> getTeam(String seasonName, String teamName);
+
+    /**
+     * Top {@code limit} players of a season by the average of {@code stat} (see {@link Statistics#AVERAGES}), among
+     * those with at least {@code minGames} games.
+     */
+    Mono<Ranking> getTopPlayers(String seasonName, int stat, int limit, long minGames);
+
+    Mono<Ranking> getTopTeams(String seasonName, int stat, int limit, long minGames);
+
+    /**
+     * One page of the players of a season, selected where the season is stored.
+     */
+    Mono<Ranking> getPlayerPage(String seasonName, PageQuery query);
+
+    Mono<Ranking> getTeamPage(String seasonName, PageQuery query);
+
+    /**
+     * Aggregates of the closed games of the teams of a season, by name: one value per team and game.
+     */
+    Mono<Ranking> getTeamGames(String seasonName);
+
+    /**
+     * Closes the open games of {@code gameId} in a season for all of its teams.
+     *
+     * @return number of teams whose game was closed
+     */
+    Mono<Integer> closeGame(String seasonName, String gameId);
+}
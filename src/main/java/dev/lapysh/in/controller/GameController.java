@@ -0,0 +1,36 @@
+package dev.lapysh.in.controller;
+
+import dev.lapysh.core.PlayerService;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpResponse;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.QueryValue;
+import reactor.core.publisher.Mono;
+
+import static io.micronaut.http.MediaType.APPLICATION_JSON;
+
+@Controller("/games")
+public class GameController {
+
+    private final PlayerService service;
+
+    public GameController(PlayerService service) {
+        this.service = service;
+    }
+
+    /**
+     * Closes a game once all of its lines were saved, rather than waiting for {@code nba.team-games.timeout}.
+     * {@code 404} if the game is not open for any team of the season.
+     */
+    @Post(uri = "/{gameId}/close", produces = APPLICATION_JSON)
+    public Mono<MutableHttpResponse<Object>> closeGame(String gameId, @QueryValue String season) {
+        return service.closeGame(season, gameId)
+            .map(closed -> closed == 0 ?
+                HttpResponse.<Object>notFound(new GameDataIngestionController.ErrorResponse("No open game " + gameId)) :
+                HttpResponse.<Object>noContent())
+            .onErrorResume(IllegalArgumentException.class,
+                e -> Mono.just(HttpResponse.badRequest(new GameDataIngestionController.ErrorResponse(e.getMessage())))
+            );
+    }
+}
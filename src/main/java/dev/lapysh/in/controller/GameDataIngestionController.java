@@ -1,19 +1,30 @@
 package dev.lapysh.in.controller;
 
+import dev.lapysh.core.IngestionDeduplicator;
 import dev.lapysh.core.PlayerService;
+import dev.lapysh.in.model.BatchResult;
 import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.in.repository.PlayersDataWriter;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
 import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Post;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static io.micronaut.http.MediaType.APPLICATION_JSON;
+import static io.micronaut.http.MediaType.APPLICATION_JSON_STREAM;
 
 @Controller("/save")
 public class GameDataIngestionController {
 
+    // Seconds
+    private static final String BUFFER_FULL_RETRY_AFTER = "1";
+    private static final String SEASON_FENCED_RETRY_AFTER = "5";
+
     private final PlayerService service;
 
     public GameDataIngestionController(PlayerService service) {
@@ -26,7 +37,44 @@ public class GameDataIngestionController {
             .then(Mono.just(HttpResponse.ok()))
             .onErrorResume(IllegalArgumentException.class,
                 e -> Mono.just(HttpResponse.badRequest(new ErrorResponse(e.getMessage())))
-            );
+            )
+            .onErrorResume(IngestionDeduplicator.DuplicateLineException.class,
+                e -> Mono.just(HttpResponse.status(HttpStatus.CONFLICT).body(new ErrorResponse(e.getMessage())))
+            )
+            .onErrorResume(IngestionDeduplicator.SeasonFencedException.class,
+                e -> Mono.just(unavailable(e, SEASON_FENCED_RETRY_AFTER))
+            )
+            .onErrorResume(PlayersDataWriter.BufferFullException.class,
+                e -> Mono.just(unavailable(e, BUFFER_FULL_RETRY_AFTER)));
+    }
+
+    /**
+     * Accepts a JSON array or a JSON stream (one line per row) of game lines.
+     * Invalid and duplicate lines, and the lines of a season that could not be saved, e.g. being rebuilt, are
+     * reported in the response and do not prevent the rest of the batch from being saved. A batch of which no line
+     * was saved answers {@code 400}, or {@code 503} if some of its lines can be retried.
+     */
+    @Post(uri = "/batch", consumes = {APPLICATION_JSON, APPLICATION_JSON_STREAM}, produces = APPLICATION_JSON)
+    public Mono<MutableHttpResponse<Object>> savePlayerDataBatch(@Body Flux<PlayerGameData> lines) {
+        return lines.collectList()
+            .flatMap(service::savePlayerDataBatch)
+            .map(result -> {
+                if (result.accepted() > 0 || result.errors().isEmpty()) {
+                    return HttpResponse.<Object>ok(result);
+                }
+                if (result.errors().stream().anyMatch(BatchResult.LineError::retry)) {
+                    return HttpResponse.<Object>status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, BUFFER_FULL_RETRY_AFTER)
+                        .body(result);
+                }
+                return HttpResponse.<Object>badRequest(result);
+            });
+    }
+
+    private static MutableHttpResponse<Object> unavailable(RuntimeException e, String retryAfter) {
+        return HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, retryAfter)
+            .body(new ErrorResponse(e.getMessage()));
     }
 
     public record ErrorResponse(String error) {
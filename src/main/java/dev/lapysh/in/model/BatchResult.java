@@ -0,0 +1,20 @@
+package dev.lapysh.in.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch ingestion: how many lines were applied and why the others were rejected.
+ * {@link LineError#line()} is the zero-based position of the line in the submitted batch.
+ */
+public record BatchResult(int accepted, List<LineError> errors) {
+
+    /**
+     * @param retry the line was not saved for a transient reason and can be sent again as is
+     */
+    public record LineError(int line, String error, boolean retry) {
+
+        public LineError(int line, String error) {
+            this(line, error, false);
+        }
+    }
+}
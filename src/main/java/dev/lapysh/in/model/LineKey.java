@@ -0,0 +1,41 @@
+package dev.lapysh.in.model;
+
+import java.util.UUID;
+
+/**
+ * Identity of a game line: a player appears at most once per game.
+ */
+public record LineKey(UUID gameId, String playerName) {
+
+    public static LineKey of(PlayerGameData line) {
+        return new LineKey(line.getGameId(), line.getPlayerName());
+    }
+
+    /**
+     * First of the two 64-bit hashes of the key, see {@link #hash2(long)}.
+     */
+    public long hash1() {
+        var name = 0xcbf29ce484222325L;
+        for (int i = 0; i < playerName.length(); i++) {
+            name = (name ^ playerName.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(gameId.getMostSignificantBits() ^ mix(gameId.getLeastSignificantBits() ^ mix(name)));
+    }
+
+    /**
+     * Second hash, derived from the first one and odd so double hashing visits distinct bits.
+     */
+    public static long hash2(long hash1) {
+        return mix(hash1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    // Finalizer of MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
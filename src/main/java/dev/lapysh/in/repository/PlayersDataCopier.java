@@ -0,0 +1,223 @@
+package dev.lapysh.in.repository;
+
+import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import io.micrometer.core.instrument.Counter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.util.ReferenceCountUtil;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Wrapped;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk path for {@code players_data}: streams rows with {@code COPY ... FROM STDIN (FORMAT binary)}, which skips SQL
+ * parsing and per-row bind overhead of {@code INSERT}. The rows are copied into a temporary table on a connection
+ * of the pool and moved with {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING} in the same transaction, so lines
+ * already present are skipped like on the {@code INSERT} path instead of failing the whole copy.
+ * <p>
+ * Binary COPY layout: a fixed header, then per row a 16-bit field count followed by each field as a 32-bit length
+ * ({@code -1} for NULL) and the value in the type's network byte order representation, then a {@code -1} trailer.
+ */
+@Singleton
+public class PlayersDataCopier {
+
+    private static final String COLUMNS = "id, player_name, team_name, season_name, game_id, points, rebounds, "
+        + "assists, steals, blocks, fouls, turnovers, minutes_played, created_at";
+
+    static final String STAGE_SQL =
+        "CREATE TEMPORARY TABLE players_data_copy (LIKE players_data INCLUDING DEFAULTS) ON COMMIT DROP";
+    static final String COPY_SQL = "COPY players_data_copy (" + COLUMNS + ") FROM STDIN (FORMAT binary)";
+    static final String MOVE_SQL = "INSERT INTO players_data (" + COLUMNS + ") SELECT " + COLUMNS
+        + " FROM players_data_copy ON CONFLICT DO NOTHING RETURNING id";
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELDS = 14;
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    // Rows per ByteBuf handed to the driver, about 64 KiB
+    private static final int ROWS_PER_CHUNK = 512;
+
+    private final ConnectionFactory connectionFactory;
+    private final StageTimer copyTimer;
+    private final Counter copiedRows;
+
+    public PlayersDataCopier(@Named("r2dbcPooledConnectionFactory") ConnectionFactory connectionFactory,
+                             StageMetrics metrics) {
+        this.connectionFactory = connectionFactory;
+        this.copyTimer = metrics.write("copy");
+        this.copiedRows = metrics.rows("copy");
+    }
+
+    /**
+     * @return the lines skipped as already present
+     */
+    public Mono<List<PlayerGameData>> copy(List<PlayerGameData> lines) {
+        if (lines.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        var ids = new UUID[lines.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = PlayersDataRepository.randomId();
+        }
+        var copy = Mono.usingWhen(connectionFactory.create(),
+            connection -> copy(connection, lines, ids),
+            Connection::close,
+            (connection, e) -> Mono.from(connection.rollbackTransaction())
+                .onErrorComplete()
+                .then(Mono.from(connection.close())),
+            Connection::close);
+        return copyTimer.time(copy)
+            .map(insertedIds -> {
+                copiedRows.increment(insertedIds.size());
+                return PlayersDataRepository.skipped(lines, ids, insertedIds);
+            });
+    }
+
+    /**
+     * @return ids of the rows moved into {@code players_data}
+     */
+    private Mono<Set<UUID>> copy(Connection connection, List<PlayerGameData> lines, UUID[] ids) {
+        var postgres = unwrap(connection);
+        var createdAt = LocalDateTime.now();
+        return Mono.from(connection.beginTransaction())
+            .then(execute(connection, STAGE_SQL))
+            .then(postgres.copyIn(COPY_SQL, encode(lines, ids, createdAt)))
+            .then(Flux.from(connection.createStatement(MOVE_SQL).execute())
+                .flatMap(result -> result.map((row, metadata) -> row.get("id", UUID.class)))
+                .collect(Collectors.toSet()))
+            .flatMap(insertedIds -> Mono.from(connection.commitTransaction()).thenReturn(insertedIds));
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+            .flatMap(Result::getRowsUpdated)
+            .then();
+    }
+
+    /**
+     * The pool hands out wrappers, {@code copyIn} is only offered by the driver's own connection.
+     */
+    private static PostgresqlConnection unwrap(Connection connection) {
+        var unwrapped = connection;
+        while (!(unwrapped instanceof PostgresqlConnection)
+            && unwrapped instanceof Wrapped<?> wrapped
+            && wrapped.unwrap() instanceof Connection inner) {
+            unwrapped = inner;
+        }
+        if (unwrapped instanceof PostgresqlConnection postgres) {
+            return postgres;
+        }
+        throw new IllegalStateException("COPY needs a PostgreSQL connection, got " + connection.getClass());
+    }
+
+    /**
+     * The COPY stream in chunks of {@link #ROWS_PER_CHUNK} rows, encoded as the driver asks for them.
+     */
+    static Flux<ByteBuf> encode(List<PlayerGameData> lines, UUID[] ids, LocalDateTime createdAt) {
+        var chunks = (lines.size() + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+        return Flux.range(0, chunks)
+            .map(chunk -> {
+                var buffer = ByteBufAllocator.DEFAULT.buffer();
+                var encoded = false;
+                try (var out = new DataOutputStream(new ByteBufOutputStream(buffer))) {
+                    if (chunk == 0) {
+                        writeHeader(out);
+                    }
+                    var to = Math.min(lines.size(), (chunk + 1) * ROWS_PER_CHUNK);
+                    for (int i = chunk * ROWS_PER_CHUNK; i < to; i++) {
+                        writeRow(out, lines.get(i), ids[i], createdAt);
+                    }
+                    if (chunk == chunks - 1) {
+                        out.writeShort(-1);
+                    }
+                    encoded = true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    if (!encoded) {
+                        buffer.release();
+                    }
+                }
+                return buffer;
+            })
+            .doOnDiscard(ByteBuf.class, ReferenceCountUtil::release);
+    }
+
+    static void writeHeader(DataOutputStream out) throws IOException {
+        out.write(SIGNATURE);
+        // Flags, header extension length
+        out.writeInt(0);
+        out.writeInt(0);
+    }
+
+    static void writeRow(DataOutputStream out, PlayerGameData line, UUID id, LocalDateTime createdAt)
+        throws IOException {
+        out.writeShort(FIELDS);
+        writeUuid(out, id);
+        writeText(out, line.getPlayerName());
+        writeText(out, line.getTeamName());
+        writeText(out, line.getSeasonName());
+        writeUuid(out, line.getGameId());
+        writeSmallint(out, line.getPoints());
+        writeSmallint(out, line.getRebounds());
+        writeSmallint(out, line.getAssists());
+        writeSmallint(out, line.getSteals());
+        writeSmallint(out, line.getBlocks());
+        writeSmallint(out, line.getFouls());
+        writeSmallint(out, line.getTurnovers());
+        out.writeInt(Float.BYTES);
+        out.writeFloat(line.getMinutesPlayed());
+        writeTimestamp(out, createdAt);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(16);
+        out.writeLong(value.getMostSignificantBits());
+        out.writeLong(value.getLeastSignificantBits());
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeSmallint(DataOutputStream out, int value) throws IOException {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value " + value + " does not fit into SMALLINT");
+        }
+        out.writeInt(Short.BYTES);
+        out.writeShort(value);
+    }
+
+    /**
+     * {@code TIMESTAMP WITHOUT TIME ZONE}: microseconds since 2000-01-01 00:00.
+     */
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeInt(Long.BYTES);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+    }
+}
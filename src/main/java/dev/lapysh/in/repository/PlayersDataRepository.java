@@ -1,14 +1,26 @@
 package dev.lapysh.in.repository;
 
+import dev.lapysh.in.model.LineKey;
 import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import io.micrometer.core.instrument.Counter;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.impl.DSL;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.jooq.impl.DSL.field;
 import static org.jooq.impl.DSL.table;
@@ -16,29 +28,114 @@ import static org.jooq.impl.DSL.table;
 @Singleton
 public class PlayersDataRepository {
 
+    private static final List<Field<?>> COLUMNS = List.of(
+        field("id"),
+        field("player_name"),
+        field("team_name"),
+        field("season_name"),
+        field("game_id"),
+        field("points"),
+        field("rebounds"),
+        field("assists"),
+        field("steals"),
+        field("blocks"),
+        field("fouls"),
+        field("turnovers"),
+        field("minutes_played"),
+        field("created_at")
+    );
+
     private final DSLContext dsl;
+    private final StageTimer insertTimer;
+    private final Counter insertedRows;
 
-    public PlayersDataRepository(@Named("r2dbcPooledDslContext") DSLContext dsl) {
+    public PlayersDataRepository(@Named("r2dbcPooledDslContext") DSLContext dsl, StageMetrics metrics) {
         this.dsl = dsl;
+        this.insertTimer = metrics.write("insert");
+        this.insertedRows = metrics.rows("insert");
+    }
+
+    /**
+     * Inserts all lines with a single multi-row {@code INSERT ... VALUES (...), (...)} statement.
+     * Lines already present (same season, game and player) are skipped.
+     *
+     * @return the lines skipped
+     */
+    public Mono<List<PlayerGameData>> saveAll(List<PlayerGameData> lines) {
+        if (lines.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        var createdAt = LocalDateTime.now();
+        var ids = new UUID[lines.size()];
+        var insert = dsl.insertInto(table("players_data"), COLUMNS);
+        for (int i = 0; i < lines.size(); i++) {
+            var line = lines.get(i);
+            ids[i] = randomId();
+            insert = insert.values(
+                DSL.cast(ids[i], UUID.class),
+                line.getPlayerName(),
+                line.getTeamName(),
+                line.getSeasonName(),
+                DSL.cast(line.getGameId(), UUID.class),
+                line.getPoints(),
+                line.getRebounds(),
+                line.getAssists(),
+                line.getSteals(),
+                line.getBlocks(),
+                line.getFouls(),
+                line.getTurnovers(),
+                line.getMinutesPlayed(),
+                createdAt
+            );
+        }
+        var inserted = Flux.from(insert.onConflictDoNothing().returningResult(field("id", UUID.class)))
+            .map(record -> record.value1())
+            .collect(Collectors.toSet());
+        return insertTimer.time(inserted)
+            .map(insertedIds -> {
+                insertedRows.increment(insertedIds.size());
+                return skipped(lines, ids, insertedIds);
+            });
+    }
+
+    /**
+     * @param ids         the row ids the lines were written with, by position
+     * @param insertedIds ids of the rows actually inserted
+     */
+    static List<PlayerGameData> skipped(List<PlayerGameData> lines, UUID[] ids, Set<UUID> insertedIds) {
+        if (insertedIds.size() == lines.size()) {
+            return List.of();
+        }
+        return IntStream.range(0, lines.size())
+            .filter(i -> !insertedIds.contains(ids[i]))
+            .mapToObj(lines::get)
+            .toList();
+    }
+
+    /**
+     * @return those of the {@code keys} already present in the season
+     */
+    public Mono<Set<LineKey>> existing(String seasonName, Collection<LineKey> keys) {
+        var rows = keys.stream()
+            .map(key -> DSL.row(DSL.cast(key.gameId(), UUID.class), DSL.val(key.playerName())))
+            .toList();
+        return Flux.from(dsl.select(field("game_id", UUID.class), field("player_name", String.class))
+                .from(table("players_data"))
+                .where(field("season_name", String.class).eq(seasonName))
+                .and(DSL.row(field("game_id", UUID.class), field("player_name", String.class)).in(rows)))
+            .map(record -> new LineKey(record.value1(), record.value2()))
+            .collect(Collectors.toSet());
     }
 
-    public Mono<Void> save(PlayerGameData playerGameData) {
-        return Mono.from(dsl.insertInto(table("players_data"))
-                .set(field("id"), DSL.cast(UUID.randomUUID(), UUID.class))
-                .set(field("player_name"), playerGameData.getPlayerName())
-                .set(field("team_name"), playerGameData.getTeamName())
-                .set(field("season_name"), playerGameData.getSeasonName())
-                .set(field("game_id"), DSL.cast(playerGameData.getGameId(), UUID.class))
-                .set(field("points"), playerGameData.getPoints())
-                .set(field("rebounds"), playerGameData.getRebounds())
-                .set(field("assists"), playerGameData.getAssists())
-                .set(field("steals"), playerGameData.getSteals())
-                .set(field("blocks"), playerGameData.getBlocks())
-                .set(field("fouls"), playerGameData.getFouls())
-                .set(field("turnovers"), playerGameData.getTurnovers())
-                .set(field("minutes_played"), playerGameData.getMinutesPlayed())
-                .set(field("created_at"), LocalDateTime.now()))
-            .then();
+    /**
+     * Random (version 4) UUID from {@link ThreadLocalRandom}: row ids only need to be unique, and
+     * {@link UUID#randomUUID()} contends on a shared {@code SecureRandom} under load.
+     */
+    static UUID randomId() {
+        var random = ThreadLocalRandom.current();
+        var msb = random.nextLong() & ~0xF000L | 0x4000L;
+        var lsb = random.nextLong() & ~(0xC000L << 48) | (0x8000L << 48);
+        return new UUID(msb, lsb);
     }
 
 }
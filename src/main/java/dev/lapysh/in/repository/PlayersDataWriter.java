@@ -0,0 +1,200 @@
+package dev.lapysh.in.repository;
+
+import dev.lapysh.cfg.WriterConfiguration;
+import dev.lapysh.in.model.PlayerGameData;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static dev.lapysh.cfg.WriterConfiguration.Durability.ACK_ON_ENQUEUE;
+
+/**
+ * Buffers raw game lines and writes them with multi-row inserts of up to {@code nba.writer.max-batch-size} rows,
+ * every {@code flush-interval} or as soon as a full batch is buffered. Only {@code max-concurrent-flushes}
+ * connections are borrowed from the pool for it, whatever the request rate. Flushes of at least
+ * {@code copy-threshold} rows, i.e. large {@code /save/batch} requests, go through {@link PlayersDataCopier}.
+ * <p>
+ * Rows count against {@code max-pending} until they are committed, so a slow database fills the buffer and
+ * callers get a {@link BufferFullException} instead of queueing without bound.
+ * <p>
+ * With {@code ACK_ON_ENQUEUE} nobody waits for a failed insert, so it is retried with backoff until it succeeds or
+ * the writer shuts down. Every insert is a single statement skipping lines already present, so a retry writes no
+ * row twice.
+ * <p>
+ * Lines skipped as already present are reported back to their callers, which leave them out of the statistics.
+ */
+@Singleton
+public class PlayersDataWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PlayersDataWriter.class);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+    private static final RetryBackoffSpec RETRY = Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(100))
+        .maxBackoff(Duration.ofSeconds(5));
+
+    private final PlayersDataRepository repository;
+    private final PlayersDataCopier copier;
+    private final WriterConfiguration config;
+    private final Disposable ticker;
+    private final Mono<Void> written;
+    private final Sinks.Many<Flush> flushes = Sinks.many().unicast().onBackpressureBuffer();
+
+    // Guarded by this
+    private List<PlayerGameData> buffer = new ArrayList<>();
+    private Sinks.One<Set<PlayerGameData>> flushed = Sinks.one();
+    private int pending;
+    private boolean closed;
+
+    public PlayersDataWriter(PlayersDataRepository repository,
+                             PlayersDataCopier copier,
+                             WriterConfiguration config) {
+        this.repository = repository;
+        this.copier = copier;
+        this.config = config;
+        this.written = flushes.asFlux()
+            .flatMap(this::write, config.maxConcurrentFlushes())
+            .then()
+            .cache();
+        written.subscribe();
+        this.ticker = Flux.interval(config.flushInterval()).subscribe(tick -> flush());
+    }
+
+    /**
+     * Buffers the lines.
+     *
+     * @return the write of their rows, which emits the lines actually written once they are committed, i.e. without
+     * those already present, or fails with {@link BufferFullException} when the lines do not fit into the buffer
+     */
+    public Mono<Mono<List<PlayerGameData>>> enqueue(List<PlayerGameData> lines) {
+        if (lines.isEmpty()) {
+            return Mono.just(Mono.just(List.of()));
+        }
+        Sinks.One<Set<PlayerGameData>> lineFlushed;
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                return Mono.error(new IllegalStateException("Writer is shutting down"));
+            }
+            // An oversized batch is still accepted into an empty buffer
+            if (pending > 0 && pending + lines.size() > config.maxPending()) {
+                return Mono.error(new BufferFullException());
+            }
+            buffer.addAll(lines);
+            pending += lines.size();
+            lineFlushed = flushed;
+            full = buffer.size() >= config.maxBatchSize();
+        }
+        if (full) {
+            flush();
+        }
+        return Mono.just(lineFlushed.asMono()
+            .map(skipped -> skipped.isEmpty() ?
+                lines :
+                lines.stream().filter(line -> !skipped.contains(line)).toList()));
+    }
+
+    public WriterConfiguration.Durability durability() {
+        return config.durability();
+    }
+
+    private synchronized void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        flushes.emitNext(new Flush(buffer, flushed), Sinks.EmitFailureHandler.FAIL_FAST);
+        buffer = new ArrayList<>();
+        flushed = Sinks.one();
+    }
+
+    private Mono<Set<PlayerGameData>> write(Flush flush) {
+        var rows = flush.rows();
+        var write = config.copyThreshold() > 0 && rows.size() >= config.copyThreshold() ?
+            // A failed copy is rolled back as a whole, e.g. a value out of range or a lost connection
+            copier.copy(rows).map(PlayersDataWriter::skippedRows).onErrorResume(e -> {
+                LOG.warn("COPY of {} game lines failed, falling back to INSERT", rows.size(), e);
+                return insert(rows);
+            }) :
+            insert(rows);
+        return write
+            .doOnSuccess(skipped -> flush.flushed().tryEmitValue(skipped))
+            .doOnError(e -> {
+                LOG.error("Failed to write {} game lines", rows.size(), e);
+                flush.flushed().tryEmitError(e);
+            })
+            .doFinally(signal -> release(rows.size()))
+            .onErrorComplete();
+    }
+
+    /**
+     * @return the rows skipped, by identity
+     */
+    private Mono<Set<PlayerGameData>> insert(List<PlayerGameData> rows) {
+        return Flux.range(0, (rows.size() + config.maxBatchSize() - 1) / config.maxBatchSize())
+            .map(batch -> rows.subList(batch * config.maxBatchSize(),
+                Math.min(rows.size(), (batch + 1) * config.maxBatchSize())))
+            .concatMap(batch -> config.durability() == ACK_ON_ENQUEUE ?
+                Mono.defer(() -> repository.saveAll(batch)).retryWhen(RETRY.filter(e -> !isClosed())
+                    .doBeforeRetry(retry -> LOG.warn("Failed to write {} game lines, retrying", batch.size(),
+                        retry.failure()))) :
+                repository.saveAll(batch))
+            .collect(PlayersDataWriter::skippedRows, Set::addAll);
+    }
+
+    /**
+     * Lines are told apart by identity, two copies of a line in a flush are two rows.
+     */
+    private static Set<PlayerGameData> skippedRows() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static Set<PlayerGameData> skippedRows(List<PlayerGameData> skipped) {
+        var rows = skippedRows();
+        rows.addAll(skipped);
+        return rows;
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private synchronized void release(int rows) {
+        pending -= rows;
+    }
+
+    @PreDestroy
+    void close() {
+        ticker.dispose();
+        synchronized (this) {
+            closed = true;
+            flush();
+            flushes.tryEmitComplete();
+        }
+        try {
+            written.block(SHUTDOWN_TIMEOUT);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to write buffered game lines on shutdown", e);
+        }
+    }
+
+    private record Flush(List<PlayerGameData> rows, Sinks.One<Set<PlayerGameData>> flushed) {
+    }
+
+    public static class BufferFullException extends RuntimeException {
+        public BufferFullException() {
+            super("Write buffer is full, retry later");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.lapysh.infra.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meters of the ingestion and query stages, exported with the Prometheus registry of {@code micronaut.metrics}.
+ * Callers build the timers of their stage and map once and keep them, so recording allocates no tags.
+ * <ul>
+ *     <li>{@code nba.validation}: validation of a game line, {@code failure} for rejected lines</li>
+ *     <li>{@code nba.map.submit}: one entry processor submission of ingested deltas, by {@code map}</li>
+ *     <li>{@code nba.db.write}: one multi-row {@code INSERT} or {@code COPY} of game lines, by {@code method};
+ *     {@code nba.db.rows} counts the rows</li>
+ *     <li>{@code nba.map.load}, {@code nba.map.store}: map store calls, by {@code map}; {@code nba.map.load.keys},
+ *     {@code nba.map.load.rows} the keys and rows of the current load of a map, {@code nba.map.load.expected.keys}
+ *     the keys it has, -1 on members that did not list them</li>
+ *     <li>{@code nba.stats.encode}: encoding of one statistics listing; {@code nba.stats.encoded} its size in
+ *     bytes</li>
+ *     <li>{@code nba.coalescing.lines}, {@code nba.coalescing.flushes}, {@code nba.coalescing.season.updates},
+ *     {@code nba.coalescing.entity.deltas}: counters of the coalescing stage; {@code nba.coalescing.ratio} the lines
+ *     per season update, 1.0 means no coalescing happened</li>
+ * </ul>
+ * Every timer has an {@code outcome} tag ({@code success}, {@code failure}) and publishes histogram buckets.
+ */
+@Singleton
+public class StageMetrics {
+
+    /**
+     * Registers nothing, for map stores created before the application context.
+     */
+    public static final StageMetrics NOOP = new StageMetrics(null);
+
+    private final MeterRegistry registry;
+    private final StageTimer validation;
+    private final StageTimer encode;
+    private final DistributionSummary encoded;
+
+    public StageMetrics(@Nullable MeterRegistry registry) {
+        // Without micronaut.metrics, meters go to a composite without registries, which records nothing
+        this.registry = registry == null ? new CompositeMeterRegistry() : registry;
+        this.validation = new StageTimer(this.registry, "nba.validation", "Validation of a game line", Tags.empty());
+        this.encode = new StageTimer(this.registry, "nba.stats.encode", "Encoding of a statistics listing",
+            Tags.empty());
+        this.encoded = DistributionSummary.builder("nba.stats.encoded")
+            .description("Size of an encoded statistics listing")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(64.0 * 1024 * 1024)
+            .register(this.registry);
+    }
+
+    public StageTimer validation() {
+        return validation;
+    }
+
+    public StageTimer submit(String mapName) {
+        return new StageTimer(registry, "nba.map.submit", "Entry processor submission of ingested deltas",
+            Tags.of("map", mapName));
+    }
+
+    /**
+     * @param method {@code insert} or {@code copy}
+     */
+    public StageTimer write(String method) {
+        return new StageTimer(registry, "nba.db.write", "Write of game lines to players_data",
+            Tags.of("method", method));
+    }
+
+    public Counter rows(String method) {
+        return Counter.builder("nba.db.rows")
+            .description("Game lines written to players_data")
+            .tags("method", method)
+            .register(registry);
+    }
+
+    public StageTimer load(String mapName) {
+        return new StageTimer(registry, "nba.map.load", "Map store load", Tags.of("map", mapName));
+    }
+
+    /**
+     * Exports the progress of the loads of a map, read when the registry is scraped.
+     */
+    public void loading(String mapName, AtomicLong keys, AtomicLong rows, AtomicLong expectedKeys) {
+        gauge("nba.map.load.keys", "Keys loaded by the current load", mapName, keys);
+        gauge("nba.map.load.rows", "Rows read by the current load", mapName, rows);
+        gauge("nba.map.load.expected.keys", "Keys of the current load, -1 if not listed here", mapName,
+            expectedKeys);
+    }
+
+    private void gauge(String name, String description, String mapName, AtomicLong value) {
+        Gauge.builder(name, value, AtomicLong::get)
+            .description(description)
+            .tags(Tags.of("map", mapName))
+            .register(registry);
+    }
+
+    public StageTimer store(String mapName) {
+        return new StageTimer(registry, "nba.map.store", "Map store store", Tags.of("map", mapName));
+    }
+
+    /**
+     * Exports the counters of the coalescing stage, read when the registry is scraped.
+     */
+    public void coalescing(LongAdder lines, LongAdder flushes, LongAdder seasonUpdates, LongAdder entityDeltas) {
+        counter("nba.coalescing.lines", "Lines folded into coalesced deltas", lines);
+        counter("nba.coalescing.flushes", "Flushes of the coalescing buffer", flushes);
+        counter("nba.coalescing.season.updates", "Deltas applied to a season key", seasonUpdates);
+        counter("nba.coalescing.entity.deltas", "Player and team deltas applied", entityDeltas);
+        Gauge.builder("nba.coalescing.ratio", () -> {
+                var updates = seasonUpdates.sum();
+                return updates == 0 ? 0.0 : (double) lines.sum() / updates;
+            })
+            .description("Lines per season key update")
+            .register(registry);
+    }
+
+    private void counter(String name, String description, LongAdder count) {
+        FunctionCounter.builder(name, count, LongAdder::sum)
+            .description(description)
+            .register(registry);
+    }
+
+    public StageTimer encode() {
+        return encode;
+    }
+
+    public DistributionSummary encoded() {
+        return encoded;
+    }
+}
@@ -0,0 +1,92 @@
+package dev.lapysh.infra.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timer of one stage with an {@code outcome} tag, both timers are registered up front: recording only looks up
+ * the one of the outcome, no tags are built per call.
+ */
+public final class StageTimer {
+
+    // Bucket range of the percentile histograms, wide enough for an in-memory validation and a slow COPY
+    private static final Duration MIN_EXPECTED = Duration.of(10, ChronoUnit.MICROS);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final Timer success;
+    private final Timer failure;
+
+    StageTimer(MeterRegistry registry, String name, String description, Tags tags) {
+        this.success = timer(registry, name, description, tags.and("outcome", "success"));
+        this.failure = timer(registry, name, description, tags.and("outcome", "failure"));
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, Tags tags) {
+        return Timer.builder(name)
+            .description(description)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED)
+            .maximumExpectedValue(MAX_EXPECTED)
+            .register(registry);
+    }
+
+    /**
+     * @param start {@link System#nanoTime()} when the stage started
+     */
+    public void record(long start, boolean succeeded) {
+        recordNanos(System.nanoTime() - start, succeeded);
+    }
+
+    /**
+     * Records a stage timed by the caller, e.g. one that runs in several slices.
+     */
+    public void recordNanos(long nanos, boolean succeeded) {
+        (succeeded ? success : failure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times a blocking stage, {@code failure} if it throws.
+     */
+    public <T> T call(Supplier<T> stage) {
+        var start = System.nanoTime();
+        var succeeded = false;
+        try {
+            var result = stage.get();
+            succeeded = true;
+            return result;
+        } finally {
+            record(start, succeeded);
+        }
+    }
+
+    public void run(Runnable stage) {
+        var start = System.nanoTime();
+        var succeeded = false;
+        try {
+            stage.run();
+            succeeded = true;
+        } finally {
+            record(start, succeeded);
+        }
+    }
+
+    /**
+     * Times {@code stage} from subscription until it completes or fails, cancellations are not recorded.
+     */
+    public <T> Mono<T> time(Mono<T> stage) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return stage
+                .doOnSuccess(value -> record(start, true))
+                .doOnError(e -> record(start, false));
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.BloomFilter;
+
+public class BloomFilterSerializer implements CompactSerializer<BloomFilter> {
+
+    @Override
+    public BloomFilter read(CompactReader reader) {
+        long[] bits = reader.readArrayOfInt64("bits");
+        int hashes = reader.readInt32("hashes");
+        long count = reader.readInt64("count");
+        return new BloomFilter(bits, hashes, count);
+    }
+
+    @Override
+    public void write(CompactWriter writer, BloomFilter object) {
+        writer.writeArrayOfInt64("bits", object.bits);
+        writer.writeInt32("hashes", object.hashes);
+        writer.writeInt64("count", object.count);
+    }
+
+    @Override
+    public Class<BloomFilter> getCompactClass() {
+        return BloomFilter.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "bloomFilter";
+    }
+}
@@ -0,0 +1,37 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.CareerProcessor;
+import dev.lapysh.core.model.Statistics;
+
+public class CareerProcessorSerializer implements CompactSerializer<CareerProcessor> {
+
+    @Override
+    public CareerProcessor read(CompactReader reader) {
+        String seasonName = reader.readString("seasonName");
+        String[] names = reader.readArrayOfString("names");
+        Statistics[] deltas = reader.readArrayOfCompact("deltas", Statistics.class);
+        boolean replace = reader.readBoolean("replace");
+        return new CareerProcessor(seasonName, names, deltas, replace);
+    }
+
+    @Override
+    public void write(CompactWriter writer, CareerProcessor object) {
+        writer.writeString("seasonName", object.seasonName);
+        writer.writeArrayOfString("names", object.names);
+        writer.writeArrayOfCompact("deltas", object.deltas);
+        writer.writeBoolean("replace", object.replace);
+    }
+
+    @Override
+    public Class<CareerProcessor> getCompactClass() {
+        return CareerProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "careerProcessor";
+    }
+}
@@ -0,0 +1,48 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.Career;
+import dev.lapysh.core.model.Statistics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CareerSerializer implements CompactSerializer<Career> {
+
+    @Override
+    public Career read(CompactReader reader) {
+        var seasonNames = reader.readArrayOfString("seasonNames");
+        var seasons = reader.readArrayOfCompact("seasons", Statistics.class);
+        Map<String, Statistics> career = HashMap.newHashMap(seasonNames.length);
+        for (int i = 0; i < seasonNames.length; i++) {
+            career.put(seasonNames[i], seasons[i]);
+        }
+        return new Career(career);
+    }
+
+    @Override
+    public void write(CompactWriter writer, Career career) {
+        var size = career.seasons.size();
+        var seasonNames = new String[size];
+        var seasons = new Statistics[size];
+        var i = 0;
+        for (var season : career.seasons.entrySet()) {
+            seasonNames[i] = season.getKey();
+            seasons[i++] = season.getValue();
+        }
+        writer.writeArrayOfString("seasonNames", seasonNames);
+        writer.writeArrayOfCompact("seasons", seasons);
+    }
+
+    @Override
+    public Class<Career> getCompactClass() {
+        return Career.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "career";
+    }
+}
@@ -0,0 +1,32 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.GameCloseProcessor;
+
+public class GameCloseProcessorSerializer implements CompactSerializer<GameCloseProcessor> {
+
+    @Override
+    public GameCloseProcessor read(CompactReader reader) {
+        String gameId = reader.readString("gameId");
+        long cutoff = reader.readInt64("cutoff");
+        return new GameCloseProcessor(gameId, cutoff);
+    }
+
+    @Override
+    public void write(CompactWriter writer, GameCloseProcessor object) {
+        writer.writeString("gameId", object.gameId);
+        writer.writeInt64("cutoff", object.cutoff);
+    }
+
+    @Override
+    public Class<GameCloseProcessor> getCompactClass() {
+        return GameCloseProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "gameCloseProcessor";
+    }
+}
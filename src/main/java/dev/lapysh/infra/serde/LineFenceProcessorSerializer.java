@@ -0,0 +1,34 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.LineFenceProcessor;
+
+public class LineFenceProcessorSerializer implements CompactSerializer<LineFenceProcessor> {
+
+    @Override
+    public LineFenceProcessor read(CompactReader reader) {
+        long timeoutMillis = reader.readInt64("timeoutMillis");
+        long expectedLines = reader.readInt64("expectedLines");
+        double falsePositiveRate = reader.readFloat64("falsePositiveRate");
+        return new LineFenceProcessor(timeoutMillis, expectedLines, falsePositiveRate);
+    }
+
+    @Override
+    public void write(CompactWriter writer, LineFenceProcessor object) {
+        writer.writeInt64("timeoutMillis", object.timeoutMillis);
+        writer.writeInt64("expectedLines", object.expectedLines);
+        writer.writeFloat64("falsePositiveRate", object.falsePositiveRate);
+    }
+
+    @Override
+    public Class<LineFenceProcessor> getCompactClass() {
+        return LineFenceProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "lineFenceProcessor";
+    }
+}
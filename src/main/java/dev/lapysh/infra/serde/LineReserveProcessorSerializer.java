@@ -0,0 +1,36 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.LineReserveProcessor;
+
+public class LineReserveProcessorSerializer implements CompactSerializer<LineReserveProcessor> {
+
+    @Override
+    public LineReserveProcessor read(CompactReader reader) {
+        long[] hashes = reader.readArrayOfInt64("hashes");
+        long timeoutMillis = reader.readInt64("timeoutMillis");
+        long expectedLines = reader.readInt64("expectedLines");
+        double falsePositiveRate = reader.readFloat64("falsePositiveRate");
+        return new LineReserveProcessor(hashes, timeoutMillis, expectedLines, falsePositiveRate);
+    }
+
+    @Override
+    public void write(CompactWriter writer, LineReserveProcessor object) {
+        writer.writeArrayOfInt64("hashes", object.hashes);
+        writer.writeInt64("timeoutMillis", object.timeoutMillis);
+        writer.writeInt64("expectedLines", object.expectedLines);
+        writer.writeFloat64("falsePositiveRate", object.falsePositiveRate);
+    }
+
+    @Override
+    public Class<LineReserveProcessor> getCompactClass() {
+        return LineReserveProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "lineReserveProcessor";
+    }
+}
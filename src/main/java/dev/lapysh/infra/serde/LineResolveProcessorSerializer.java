@@ -0,0 +1,36 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.LineResolveProcessor;
+
+public class LineResolveProcessorSerializer implements CompactSerializer<LineResolveProcessor> {
+
+    @Override
+    public LineResolveProcessor read(CompactReader reader) {
+        long[] hashes = reader.readArrayOfInt64("hashes");
+        boolean commit = reader.readBoolean("commit");
+        long expectedLines = reader.readInt64("expectedLines");
+        double falsePositiveRate = reader.readFloat64("falsePositiveRate");
+        return new LineResolveProcessor(hashes, commit, expectedLines, falsePositiveRate);
+    }
+
+    @Override
+    public void write(CompactWriter writer, LineResolveProcessor object) {
+        writer.writeArrayOfInt64("hashes", object.hashes);
+        writer.writeBoolean("commit", object.commit);
+        writer.writeInt64("expectedLines", object.expectedLines);
+        writer.writeFloat64("falsePositiveRate", object.falsePositiveRate);
+    }
+
+    @Override
+    public Class<LineResolveProcessor> getCompactClass() {
+        return LineResolveProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "lineResolveProcessor";
+    }
+}
@@ -1,27 +1,95 @@
 package dev.lapysh.infra.serde;
 
+import com.hazelcast.nio.serialization.FieldKind;
 import com.hazelcast.nio.serialization.compact.CompactReader;
 import com.hazelcast.nio.serialization.compact.CompactSerializer;
 import com.hazelcast.nio.serialization.compact.CompactWriter;
 import dev.lapysh.core.MapEntryProcessor;
-import dev.lapysh.in.model.PlayerGameData;
-import dev.lapysh.in.model.PlayerGameDataSerializer;
+import dev.lapysh.core.model.LineValues;
+import dev.lapysh.core.model.OpenGame;
+import dev.lapysh.core.model.Statistics;
 
-public class MapProcessorSerializer implements CompactSerializer<MapEntryProcessor> {
+import java.util.Arrays;
 
-    private final PlayerGameDataSerializer playerGameDataSerializer = new PlayerGameDataSerializer();
+public class MapProcessorSerializer implements CompactSerializer<MapEntryProcessor> {
 
     @Override
     public MapEntryProcessor read(CompactReader reader) {
-        String name = reader.readString("name");
-        PlayerGameData playerGameData = playerGameDataSerializer.read(reader);
-        return new MapEntryProcessor(name, playerGameData);
+        String mapName = reader.readString("mapName");
+        String[] names = reader.readArrayOfString("names");
+        Statistics[] deltas = reader.readArrayOfCompact("deltas", Statistics.class);
+        LineValues[] lines = readLines(reader);
+        long epoch = reader.readInt64("epoch");
+        String[] teams = reader.readArrayOfString("teams");
+        OpenGame[] games = OpenGames.read(reader, "game");
+        long time = reader.readInt64("time");
+        int windowCapacity = reader.readInt32("windowCapacity");
+        int maxOpen = reader.readInt32("maxOpen");
+        return new MapEntryProcessor(mapName, names, deltas, lines, teams, games, epoch, time, windowCapacity, maxOpen);
     }
 
     @Override
     public void write(CompactWriter writer, MapEntryProcessor object) {
-        writer.writeString("name", object.name);
-        playerGameDataSerializer.write(writer, object.playerGameData);
+        writer.writeString("mapName", object.mapName);
+        writer.writeArrayOfString("names", object.names);
+        writer.writeArrayOfCompact("deltas", object.deltas);
+        writeLines(writer, object.lines);
+        writer.writeInt64("epoch", object.epoch);
+        writer.writeArrayOfString("teams", object.teams);
+        OpenGames.write(writer, "game", object.games);
+        writer.writeInt64("time", object.time);
+        writer.writeInt32("windowCapacity", object.windowCapacity);
+        writer.writeInt32("maxOpen", object.maxOpen);
+    }
+
+    /**
+     * Line values as {@code lineCounts} (lines per entity, {@code -1} for none) and {@code lineValues} (all of them,
+     * {@link Statistics#STATS} values per line).
+     */
+    private static void writeLines(CompactWriter writer, LineValues[] lines) {
+        int[] counts = null;
+        double[] values = null;
+        if (lines != null) {
+            counts = new int[lines.length];
+            var total = 0;
+            for (int i = 0; i < lines.length; i++) {
+                counts[i] = lines[i] == null ? -1 : lines[i].size();
+                total += Math.max(0, counts[i]);
+            }
+            values = new double[total * Statistics.STATS];
+            var offset = 0;
+            for (var entity : lines) {
+                if (entity != null) {
+                    var length = entity.size() * Statistics.STATS;
+                    System.arraycopy(entity.values(), 0, values, offset, length);
+                    offset += length;
+                }
+            }
+        }
+        writer.writeArrayOfInt32("lineCounts", counts);
+        writer.writeArrayOfFloat64("lineValues", values);
+    }
+
+    private static LineValues[] readLines(CompactReader reader) {
+        // Processors of members not yet upgraded carry no lines
+        if (reader.getFieldKind("lineCounts") != FieldKind.ARRAY_OF_INT32) {
+            return null;
+        }
+        var counts = reader.readArrayOfInt32("lineCounts");
+        if (counts == null) {
+            return null;
+        }
+        var values = reader.readArrayOfFloat64("lineValues");
+        var lines = new LineValues[counts.length];
+        var offset = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] >= 0) {
+                var length = counts[i] * Statistics.STATS;
+                lines[i] = new LineValues(Arrays.copyOfRange(values, offset, offset + length), counts[i]);
+                offset += length;
+            }
+        }
+        return lines;
     }
 
     @Override
@@ -0,0 +1,65 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.OpenGame;
+import dev.lapysh.core.model.Statistics;
+
+import java.util.Arrays;
+
+/**
+ * Open games as parallel arrays of the fields {@code <prefix>Teams}, {@code <prefix>Ids}, {@code <prefix>Totals}
+ * ({@link Statistics#STATS} values per game) and {@code <prefix>LastLineAt}.
+ */
+final class OpenGames {
+
+    private OpenGames() {
+    }
+
+    static void write(CompactWriter writer, String prefix, OpenGame[] games) {
+        String[] teams = null;
+        String[] ids = null;
+        double[] totals = null;
+        long[] lastLineAt = null;
+        if (games != null) {
+            teams = new String[games.length];
+            ids = new String[games.length];
+            totals = new double[games.length * Statistics.STATS];
+            lastLineAt = new long[games.length];
+            for (int i = 0; i < games.length; i++) {
+                teams[i] = games[i].team;
+                ids[i] = games[i].gameId;
+                System.arraycopy(games[i].totals, 0, totals, i * Statistics.STATS, Statistics.STATS);
+                lastLineAt[i] = games[i].lastLineAt;
+            }
+        }
+        writer.writeArrayOfString(prefix + "Teams", teams);
+        writer.writeArrayOfString(prefix + "Ids", ids);
+        writer.writeArrayOfFloat64(prefix + "Totals", totals);
+        writer.writeArrayOfInt64(prefix + "LastLineAt", lastLineAt);
+    }
+
+    /**
+     * @return the games, {@code null} if none were written
+     */
+    static OpenGame[] read(CompactReader reader, String prefix) {
+        if (reader.getFieldKind(prefix + "Teams") != FieldKind.ARRAY_OF_STRING) {
+            return null;
+        }
+        var teams = reader.readArrayOfString(prefix + "Teams");
+        if (teams == null) {
+            return null;
+        }
+        var ids = reader.readArrayOfString(prefix + "Ids");
+        var totals = reader.readArrayOfFloat64(prefix + "Totals");
+        var lastLineAt = reader.readArrayOfInt64(prefix + "LastLineAt");
+        var games = new OpenGame[teams.length];
+        for (int i = 0; i < games.length; i++) {
+            var from = i * Statistics.STATS;
+            games[i] = new OpenGame(teams[i], ids[i], Arrays.copyOfRange(totals, from, from + Statistics.STATS),
+                lastLineAt[i]);
+        }
+        return games;
+    }
+}
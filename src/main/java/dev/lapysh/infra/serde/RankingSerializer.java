@@ -0,0 +1,33 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.Ranking;
+import dev.lapysh.core.model.Statistics;
+
+public class RankingSerializer implements CompactSerializer<Ranking> {
+
+    @Override
+    public Ranking read(CompactReader reader) {
+        String[] names = reader.readArrayOfString("names");
+        Statistics[] statistics = reader.readArrayOfCompact("statistics", Statistics.class);
+        return new Ranking(names, statistics);
+    }
+
+    @Override
+    public void write(CompactWriter writer, Ranking object) {
+        writer.writeArrayOfString("names", object.names);
+        writer.writeArrayOfCompact("statistics", object.statistics);
+    }
+
+    @Override
+    public Class<Ranking> getCompactClass() {
+        return Ranking.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "ranking";
+    }
+}
@@ -0,0 +1,30 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.SeasonEntityProcessor;
+
+public class SeasonEntityProcessorSerializer implements CompactSerializer<SeasonEntityProcessor> {
+
+    @Override
+    public SeasonEntityProcessor read(CompactReader reader) {
+        String name = reader.readString("name");
+        return new SeasonEntityProcessor(name);
+    }
+
+    @Override
+    public void write(CompactWriter writer, SeasonEntityProcessor object) {
+        writer.writeString("name", object.name);
+    }
+
+    @Override
+    public Class<SeasonEntityProcessor> getCompactClass() {
+        return SeasonEntityProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "seasonEntityProcessor";
+    }
+}
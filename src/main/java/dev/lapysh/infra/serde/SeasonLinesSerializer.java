@@ -0,0 +1,55 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.BloomFilter;
+import dev.lapysh.core.model.SeasonLines;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SeasonLinesSerializer implements CompactSerializer<SeasonLines> {
+
+    @Override
+    public SeasonLines read(CompactReader reader) {
+        BloomFilter filter = reader.readCompact("filter");
+        var pendingH1 = reader.readArrayOfInt64("pendingH1");
+        var pendingH2 = reader.readArrayOfInt64("pendingH2");
+        var expiresAt = reader.readArrayOfInt64("expiresAt");
+        var fencedUntil = reader.readInt64("fencedUntil");
+        Map<SeasonLines.Key, Long> pending = HashMap.newHashMap(pendingH1.length);
+        for (int i = 0; i < pendingH1.length; i++) {
+            pending.put(new SeasonLines.Key(pendingH1[i], pendingH2[i]), expiresAt[i]);
+        }
+        return new SeasonLines(filter, pending, fencedUntil);
+    }
+
+    @Override
+    public void write(CompactWriter writer, SeasonLines lines) {
+        var pendingH1 = new long[lines.pending.size()];
+        var pendingH2 = new long[pendingH1.length];
+        var expiresAt = new long[pendingH1.length];
+        var i = 0;
+        for (var reservation : lines.pending.entrySet()) {
+            pendingH1[i] = reservation.getKey().h1();
+            pendingH2[i] = reservation.getKey().h2();
+            expiresAt[i++] = reservation.getValue();
+        }
+        writer.writeCompact("filter", lines.filter);
+        writer.writeArrayOfInt64("pendingH1", pendingH1);
+        writer.writeArrayOfInt64("pendingH2", pendingH2);
+        writer.writeArrayOfInt64("expiresAt", expiresAt);
+        writer.writeInt64("fencedUntil", lines.fencedUntil);
+    }
+
+    @Override
+    public Class<SeasonLines> getCompactClass() {
+        return SeasonLines.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "seasonLines";
+    }
+}
@@ -0,0 +1,44 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.SeasonPageProcessor;
+import dev.lapysh.core.model.PageQuery;
+
+public class SeasonPageProcessorSerializer implements CompactSerializer<SeasonPageProcessor> {
+
+    @Override
+    public SeasonPageProcessor read(CompactReader reader) {
+        int sort = reader.readInt32("sort");
+        boolean descending = reader.readBoolean("descending");
+        long minGames = reader.readInt64("minGames");
+        String team = reader.readString("team");
+        int limit = reader.readInt32("limit");
+        String afterName = reader.readString("afterName");
+        double afterValue = reader.readFloat64("afterValue");
+        return new SeasonPageProcessor(new PageQuery(sort, descending, minGames, team, limit, afterName, afterValue));
+    }
+
+    @Override
+    public void write(CompactWriter writer, SeasonPageProcessor object) {
+        var query = object.query;
+        writer.writeInt32("sort", query.sort);
+        writer.writeBoolean("descending", query.descending);
+        writer.writeInt64("minGames", query.minGames);
+        writer.writeString("team", query.team);
+        writer.writeInt32("limit", query.limit);
+        writer.writeString("afterName", query.afterName);
+        writer.writeFloat64("afterValue", query.afterValue);
+    }
+
+    @Override
+    public Class<SeasonPageProcessor> getCompactClass() {
+        return SeasonPageProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "seasonPageProcessor";
+    }
+}
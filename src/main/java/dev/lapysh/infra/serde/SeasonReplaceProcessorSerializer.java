@@ -0,0 +1,33 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.SeasonReplaceProcessor;
+import dev.lapysh.core.model.SeasonStatistics;
+
+public class SeasonReplaceProcessorSerializer implements CompactSerializer<SeasonReplaceProcessor> {
+
+    @Override
+    public SeasonReplaceProcessor read(CompactReader reader) {
+        String mapName = reader.readString("mapName");
+        SeasonStatistics season = reader.readCompact("season");
+        return new SeasonReplaceProcessor(mapName, season);
+    }
+
+    @Override
+    public void write(CompactWriter writer, SeasonReplaceProcessor object) {
+        writer.writeString("mapName", object.mapName);
+        writer.writeCompact("season", object.season);
+    }
+
+    @Override
+    public Class<SeasonReplaceProcessor> getCompactClass() {
+        return SeasonReplaceProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "seasonReplaceProcessor";
+    }
+}
@@ -0,0 +1,76 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+import dev.lapysh.core.model.TeamGames;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SeasonStatisticsSerializer implements CompactSerializer<SeasonStatistics> {
+
+    @Override
+    public SeasonStatistics read(CompactReader reader) {
+        var epoch = reader.readInt64("epoch");
+        var version = reader.readInt64("version");
+        var names = reader.readArrayOfString("names");
+        var stats = reader.readArrayOfCompact("stats", Statistics.class);
+        var versions = reader.readArrayOfInt64("versions");
+        // Seasons written before teams were tracked have no teams field
+        var teams = reader.getFieldKind("teams") == FieldKind.ARRAY_OF_STRING ?
+            reader.readArrayOfString("teams") :
+            new String[names.length];
+        // As are seasons written before per-game team totals were kept
+        TeamGames games = reader.getFieldKind("games") == FieldKind.COMPACT ? reader.readCompact("games") : null;
+        Map<String, Statistics> entities = HashMap.newHashMap(names.length);
+        Map<String, Long> entityVersions = HashMap.newHashMap(names.length);
+        Map<String, String> entityTeams = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            entities.put(names[i], stats[i]);
+            entityVersions.put(names[i], versions[i]);
+            if (teams[i] != null) {
+                entityTeams.put(names[i], teams[i]);
+            }
+        }
+        var season = new SeasonStatistics(epoch, version, entities, entityVersions, entityTeams);
+        season.games = games;
+        return season;
+    }
+
+    @Override
+    public void write(CompactWriter writer, SeasonStatistics season) {
+        var size = season.entities.size();
+        var names = new String[size];
+        var stats = new Statistics[size];
+        var versions = new long[size];
+        var teams = new String[size];
+        var i = 0;
+        for (var entity : season.entities.entrySet()) {
+            names[i] = entity.getKey();
+            stats[i] = entity.getValue();
+            teams[i] = season.teams.get(entity.getKey());
+            versions[i++] = season.versions.getOrDefault(entity.getKey(), 0L);
+        }
+        writer.writeInt64("epoch", season.epoch);
+        writer.writeInt64("version", season.version);
+        writer.writeArrayOfString("names", names);
+        writer.writeArrayOfCompact("stats", stats);
+        writer.writeArrayOfInt64("versions", versions);
+        writer.writeArrayOfString("teams", teams);
+        writer.writeCompact("games", season.games);
+    }
+
+    @Override
+    public Class<SeasonStatistics> getCompactClass() {
+        return SeasonStatistics.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "seasonStatistics";
+    }
+}
@@ -0,0 +1,41 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.FieldKind;
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.QuantileSketch;
+import dev.lapysh.core.model.RecentGames;
+import dev.lapysh.core.model.Statistics;
+
+public class StatisticsSerializer implements CompactSerializer<Statistics> {
+
+    @Override
+    public Statistics read(CompactReader reader) {
+        var n = reader.readInt64("n");
+        var values = reader.readArrayOfFloat64("values");
+        // Statistics written before sketches (recent games) were added have no sketch (recent) field
+        var sketch = reader.getFieldKind("sketch") == FieldKind.ARRAY_OF_INT8 ? reader.readArrayOfInt8("sketch") : null;
+        var recent = reader.getFieldKind("recent") == FieldKind.ARRAY_OF_INT8 ? reader.readArrayOfInt8("recent") : null;
+        return new Statistics(n, values, sketch == null ? null : QuantileSketch.fromBytes(sketch),
+            recent == null ? null : RecentGames.fromBytes(recent));
+    }
+
+    @Override
+    public void write(CompactWriter writer, Statistics statistics) {
+        writer.writeInt64("n", statistics.n());
+        writer.writeArrayOfFloat64("values", statistics.values());
+        writer.writeArrayOfInt8("sketch", statistics.sketch() == null ? null : statistics.sketch().toBytes());
+        writer.writeArrayOfInt8("recent", statistics.recent() == null ? null : statistics.recent().toBytes());
+    }
+
+    @Override
+    public Class<Statistics> getCompactClass() {
+        return Statistics.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "statistics";
+    }
+}
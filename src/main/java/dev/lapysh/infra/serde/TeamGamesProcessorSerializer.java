@@ -0,0 +1,28 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.TeamGamesProcessor;
+
+public class TeamGamesProcessorSerializer implements CompactSerializer<TeamGamesProcessor> {
+
+    @Override
+    public TeamGamesProcessor read(CompactReader reader) {
+        return new TeamGamesProcessor();
+    }
+
+    @Override
+    public void write(CompactWriter writer, TeamGamesProcessor object) {
+    }
+
+    @Override
+    public Class<TeamGamesProcessor> getCompactClass() {
+        return TeamGamesProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "teamGamesProcessor";
+    }
+}
@@ -0,0 +1,71 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.model.OpenGame;
+import dev.lapysh.core.model.Statistics;
+import dev.lapysh.core.model.TeamGames;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class TeamGamesSerializer implements CompactSerializer<TeamGames> {
+
+    @Override
+    public TeamGames read(CompactReader reader) {
+        var teams = reader.readArrayOfString("teams");
+        var stats = reader.readArrayOfCompact("totals", Statistics.class);
+        var open = OpenGames.read(reader, "open");
+        var closedTeams = reader.readArrayOfString("closedTeams");
+        var closedIds = reader.readArrayOfString("closedIds");
+        Map<String, Statistics> totals = HashMap.newHashMap(teams.length);
+        for (int i = 0; i < teams.length; i++) {
+            totals.put(teams[i], stats[i]);
+        }
+        Map<OpenGame.Key, OpenGame> openGames = HashMap.newHashMap(open.length);
+        for (var game : open) {
+            openGames.put(game.key(), game);
+        }
+        Set<OpenGame.Key> closed = HashSet.newHashSet(closedTeams.length);
+        for (int i = 0; i < closedTeams.length; i++) {
+            closed.add(new OpenGame.Key(closedTeams[i], closedIds[i]));
+        }
+        return new TeamGames(totals, openGames, closed);
+    }
+
+    @Override
+    public void write(CompactWriter writer, TeamGames games) {
+        var teams = new String[games.totals.size()];
+        var stats = new Statistics[teams.length];
+        var i = 0;
+        for (var team : games.totals.entrySet()) {
+            teams[i] = team.getKey();
+            stats[i++] = team.getValue();
+        }
+        var closedTeams = new String[games.closed.size()];
+        var closedIds = new String[closedTeams.length];
+        i = 0;
+        for (var key : games.closed) {
+            closedTeams[i] = key.team();
+            closedIds[i++] = key.gameId();
+        }
+        writer.writeArrayOfString("teams", teams);
+        writer.writeArrayOfCompact("totals", stats);
+        OpenGames.write(writer, "open", games.open.values().toArray(OpenGame[]::new));
+        writer.writeArrayOfString("closedTeams", closedTeams);
+        writer.writeArrayOfString("closedIds", closedIds);
+    }
+
+    @Override
+    public Class<TeamGames> getCompactClass() {
+        return TeamGames.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "teamGames";
+    }
+}
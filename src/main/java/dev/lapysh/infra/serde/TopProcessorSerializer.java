@@ -0,0 +1,36 @@
+package dev.lapysh.infra.serde;
+
+import com.hazelcast.nio.serialization.compact.CompactReader;
+import com.hazelcast.nio.serialization.compact.CompactSerializer;
+import com.hazelcast.nio.serialization.compact.CompactWriter;
+import dev.lapysh.core.TopProcessor;
+
+public class TopProcessorSerializer implements CompactSerializer<TopProcessor> {
+
+    @Override
+    public TopProcessor read(CompactReader reader) {
+        String mapName = reader.readString("mapName");
+        int stat = reader.readInt32("stat");
+        int limit = reader.readInt32("limit");
+        long minGames = reader.readInt64("minGames");
+        return new TopProcessor(mapName, stat, limit, minGames);
+    }
+
+    @Override
+    public void write(CompactWriter writer, TopProcessor object) {
+        writer.writeString("mapName", object.mapName);
+        writer.writeInt32("stat", object.stat);
+        writer.writeInt32("limit", object.limit);
+        writer.writeInt64("minGames", object.minGames);
+    }
+
+    @Override
+    public Class<TopProcessor> getCompactClass() {
+        return TopProcessor.class;
+    }
+
+    @Override
+    public String getTypeName() {
+        return "topProcessor";
+    }
+}
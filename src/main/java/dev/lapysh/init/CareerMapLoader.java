@@ -0,0 +1,86 @@
+package dev.lapysh.init;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.MapLoader;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import dev.lapysh.core.model.Career;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Table;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+
+/**
+ * Loads careers from the table configured with the {@code table} and {@code name-column} map loader properties:
+ * a career is all rows of a player (team), one per season. Nothing is stored back, careers are derived from the
+ * season maps, which store the same rows.
+ */
+public class CareerMapLoader implements MapLoader<String, Career>, MapLoaderLifecycleSupport {
+
+    private static final Field<String> SEASON_NAME = field("season_name", String.class);
+
+    private static volatile DSLContext dsl;
+
+    private Table<Record> table;
+    private Field<String> name;
+    private LoadProgress progress;
+
+    public static void setDsl(DSLContext dsl) {
+        CareerMapLoader.dsl = dsl;
+    }
+
+    @Override
+    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+        var tableName = properties.getProperty("table");
+        this.table = table(tableName);
+        this.name = field(properties.getProperty("name-column"), String.class);
+        this.progress = new LoadProgress(tableName + " careers");
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    @Override
+    public Career load(String key) {
+        return loadCareers(name.eq(key)).get(key);
+    }
+
+    @Override
+    public Map<String, Career> loadAll(Collection<String> keys) {
+        var careers = loadCareers(name.in(keys));
+        progress.loaded(keys.size(), careers.values().stream().mapToLong(career -> career.seasons.size()).sum());
+        return careers;
+    }
+
+    private Map<String, Career> loadCareers(Condition condition) {
+        var careers = new HashMap<String, Career>();
+        Flux.from(dsl.select()
+                .from(table)
+                .where(condition))
+            .toIterable()
+            .forEach(record -> careers.computeIfAbsent(record.get(name), key -> new Career())
+                .replace(record.get(SEASON_NAME), StatisticsRows.toStatistics(record)));
+        return careers;
+    }
+
+    @Override
+    public Iterable<String> loadAllKeys() {
+        var keys = Flux.from(dsl.selectDistinct(name)
+                .from(table))
+            .map(record -> record.get(name))
+            .collectList()
+            .block();
+        progress.expect(keys.size());
+        return keys;
+    }
+}
@@ -0,0 +1,78 @@
+package dev.lapysh.init;
+
+import com.hazelcast.map.MapLoader;
+import dev.lapysh.cfg.DedupConfiguration;
+import dev.lapysh.core.model.BloomFilter;
+import dev.lapysh.core.model.SeasonLines;
+import dev.lapysh.in.model.LineKey;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+
+/**
+ * Loads the Bloom filter of a season from the keys of its raw lines the first time the season is touched after a
+ * cold start, with no keys reserved. Nothing is stored back: the filter is derived state, {@code players_data} is
+ * the truth.
+ */
+public class IngestedLinesMapLoader implements MapLoader<String, SeasonLines> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestedLinesMapLoader.class);
+
+    private static volatile DSLContext dsl;
+    private static volatile DedupConfiguration config;
+
+    public static void setDsl(DSLContext dsl, DedupConfiguration config) {
+        IngestedLinesMapLoader.dsl = dsl;
+        IngestedLinesMapLoader.config = config;
+    }
+
+    @Override
+    public SeasonLines load(String seasonName) {
+        var keys = Flux.from(dsl.select(field("game_id", UUID.class), field("player_name", String.class))
+                .from(table("players_data"))
+                .where(field("season_name", String.class).eq(seasonName))
+                .and(field("game_id").isNotNull()))
+            .map(record -> new LineKey(record.value1(), record.value2()))
+            .collectList()
+            .block();
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+        // Leaves room for the season to double before the false positive rate degrades
+        var filter = BloomFilter.create(Math.max(config.expectedLinesPerSeason(), 2L * keys.size()),
+            config.falsePositiveRate());
+        for (var key : keys) {
+            var h1 = key.hash1();
+            filter.put(h1, LineKey.hash2(h1));
+        }
+        LOG.info("Loaded line filter of season {} from {} lines", seasonName, keys.size());
+        return new SeasonLines(filter);
+    }
+
+    @Override
+    public Map<String, SeasonLines> loadAll(Collection<String> seasonNames) {
+        var filters = new HashMap<String, SeasonLines>();
+        for (var seasonName : seasonNames) {
+            var filter = load(seasonName);
+            if (filter != null) {
+                filters.put(seasonName, filter);
+            }
+        }
+        return filters;
+    }
+
+    @Override
+    public Iterable<String> loadAllKeys() {
+        // Filters are loaded on first access only
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.lapysh.init;
+
+import dev.lapysh.infra.metrics.StageMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the initial load of one map, logged at most once a second and once when all keys are loaded.
+ * Hazelcast calls {@code loadAll} concurrently for the partitions of the member, so everything here is atomic.
+ * The counts are exported as {@code nba.map.load.*} gauges.
+ */
+final class LoadProgress {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadProgress.class);
+    private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final String tableName;
+    private final AtomicLong expectedKeys = new AtomicLong(-1);
+    private final AtomicLong keys = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong started = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastLogged = new AtomicLong(System.nanoTime());
+
+    LoadProgress(String tableName) {
+        this.tableName = tableName;
+    }
+
+    void export(StageMetrics metrics, String mapName) {
+        metrics.loading(mapName, keys, rows, expectedKeys);
+    }
+
+    void expect(long keyCount) {
+        keys.set(0);
+        rows.set(0);
+        started.set(System.nanoTime());
+        lastLogged.set(System.nanoTime());
+        expectedKeys.set(keyCount);
+        LOG.info("Loading {} keys of {}", keyCount, tableName);
+    }
+
+    void loaded(int keyCount, long rowCount) {
+        var loadedKeys = keys.addAndGet(keyCount);
+        var loadedRows = rows.addAndGet(rowCount);
+        var now = System.nanoTime();
+        var last = lastLogged.get();
+        // Only the member that ran loadAllKeys knows how many keys there are
+        var expected = expectedKeys.get();
+        var complete = loadedKeys == expected;
+        if (complete || now - last >= LOG_INTERVAL && lastLogged.compareAndSet(last, now)) {
+            var elapsed = TimeUnit.NANOSECONDS.toMillis(now - started.get());
+            LOG.info("Loaded {}{} keys ({} rows) of {} in {} ms", loadedKeys, expected < 0 ? "" : "/" + expected,
+                loadedRows, tableName, elapsed);
+        }
+    }
+}
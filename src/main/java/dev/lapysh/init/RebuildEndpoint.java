@@ -0,0 +1,25 @@
+package dev.lapysh.init;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Write;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@code POST /rebuild}: recomputes the statistics of one season ({@code {"season": "2023-2024"}}) or of all
+ * seasons from the raw game lines.
+ */
+@Endpoint(id = "rebuild", defaultSensitive = true)
+public class RebuildEndpoint {
+
+    private final StatisticsRebuilder rebuilder;
+
+    public RebuildEndpoint(StatisticsRebuilder rebuilder) {
+        this.rebuilder = rebuilder;
+    }
+
+    @Write
+    public Mono<StatisticsRebuilder.RebuildReport> rebuild(@Nullable String season) {
+        return rebuilder.rebuild(season);
+    }
+}
@@ -0,0 +1,281 @@
+package dev.lapysh.init;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.MapLoaderLifecycleSupport;
+import com.hazelcast.map.MapStore;
+import dev.lapysh.cfg.SnapshotConfiguration;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+
+/**
+ * Map store of the season maps: a season entry is all rows of the season in the statistics table.
+ * <p>
+ * With {@code nba.snapshot.enabled} the initial load starts from the local snapshot written by
+ * {@link SnapshotWriter} and only reads the rows updated after the snapshot watermark from the database.
+ */
+public abstract class SeasonStatisticsMapStore
+    implements MapStore<String, SeasonStatistics>, MapLoaderLifecycleSupport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SeasonStatisticsMapStore.class);
+
+    private static volatile DSLContext dsl;
+    private static volatile SnapshotConfiguration snapshots;
+    private static volatile StageMetrics metrics = StageMetrics.NOOP;
+
+    private final String tableName;
+    private final String nameColumn;
+    private final String teamColumn;
+    private final String primaryKey;
+    private final StoredVersions storedVersions = new StoredVersions();
+    private final LoadProgress progress;
+    private StageTimer loadTimer;
+    private StageTimer storeTimer;
+
+    // Opened by the first load, kept mapped until the map store is destroyed
+    private StatisticsSnapshot snapshot;
+    private boolean snapshotOpened;
+
+    /**
+     * @param teamColumn column of the team of a player, {@code null} if the table has none
+     */
+    protected SeasonStatisticsMapStore(String tableName, String nameColumn, String teamColumn, String primaryKey) {
+        this.tableName = tableName;
+        this.nameColumn = nameColumn;
+        this.teamColumn = teamColumn;
+        this.primaryKey = primaryKey;
+        this.progress = new LoadProgress(tableName);
+    }
+
+    public static void setDsl(DSLContext dsl) {
+        SeasonStatisticsMapStore.dsl = dsl;
+    }
+
+    public static void setSnapshots(SnapshotConfiguration snapshots) {
+        SeasonStatisticsMapStore.snapshots = snapshots;
+    }
+
+    public static void setMetrics(StageMetrics metrics) {
+        SeasonStatisticsMapStore.metrics = metrics;
+    }
+
+    static Path snapshotFile(SnapshotConfiguration snapshots, String tableName) {
+        return snapshots.directory().resolve(tableName + ".snapshot");
+    }
+
+    @Override
+    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+        this.loadTimer = metrics.load(mapName);
+        this.storeTimer = metrics.store(mapName);
+        progress.export(metrics, mapName);
+    }
+
+    @Override
+    public SeasonStatistics load(String seasonName) {
+        return loadTimer.call(() -> loadSeason(seasonName));
+    }
+
+    private SeasonStatistics loadSeason(String seasonName) {
+        var season = Flux.from(dsl.select()
+                .from(table(tableName))
+                .where(field("season_name").eq(seasonName)))
+            .collectList()
+            .map(this::toSeason)
+            .block();
+        if (season != null) {
+            storedVersions.stored(seasonName, season);
+            restore(Map.of(seasonName, season));
+        }
+        return season;
+    }
+
+    /**
+     * Loads all seasons of a partition with one streaming query, rows are grouped into seasons in parallel.
+     * Seasons found in the snapshot are decoded from it and patched with the rows updated after its watermark.
+     */
+    @Override
+    public Map<String, SeasonStatistics> loadAll(Collection<String> keys) {
+        return loadTimer.call(() -> loadPartition(keys));
+    }
+
+    private Map<String, SeasonStatistics> loadPartition(Collection<String> keys) {
+        var rows = new LongAdder();
+        var fromDatabase = new ArrayList<String>(keys.size());
+        var fromSnapshot = new ArrayList<String>();
+        var snapshot = snapshot();
+        keys.forEach(key -> (snapshot != null && snapshot.contains(key) ? fromSnapshot : fromDatabase).add(key));
+
+        var seasons = new HashMap<String, SeasonStatistics>(keys.size());
+        if (!fromSnapshot.isEmpty()) {
+            var entities = new HashMap<String, Map<String, Statistics>>();
+            var teams = new HashMap<String, Map<String, String>>();
+            fromSnapshot.forEach(seasonName -> {
+                entities.put(seasonName, new HashMap<>());
+                teams.put(seasonName, new HashMap<>());
+                snapshot.read(seasonName, entities.get(seasonName), teams.get(seasonName));
+            });
+            Flux.from(dsl.select()
+                    .from(table(tableName))
+                    .where(field("season_name").in(fromSnapshot)
+                        .and(field("updated_at").gt(snapshot.watermark()))))
+                .doOnNext(record -> rows.increment())
+                .toIterable()
+                .forEach(record -> {
+                    var seasonName = record.get("season_name", String.class);
+                    put(record, entities.get(seasonName), teams.get(seasonName));
+                });
+            // Rows not updated since the watermark may be behind the snapshot, so the first store writes them all
+            entities.forEach((seasonName, season) ->
+                seasons.put(seasonName, SeasonStatistics.loaded(season, teams.get(seasonName))));
+        }
+        if (!fromDatabase.isEmpty()) {
+            var loaded = loadSeasons(field("season_name").in(fromDatabase), fromDatabase.size(), rows);
+            loaded.forEach(storedVersions::stored);
+            seasons.putAll(loaded);
+        }
+        restore(seasons);
+        progress.loaded(keys.size(), rows.sum());
+        return seasons;
+    }
+
+    /**
+     * Restores the state of loaded seasons that is not stored in the statistics table.
+     */
+    protected void restore(Map<String, SeasonStatistics> seasons) {
+    }
+
+    protected static DSLContext dsl() {
+        return dsl;
+    }
+
+    private Map<String, SeasonStatistics> loadSeasons(Condition condition, int seasonCount, LongAdder rows) {
+        return Flux.from(dsl.select()
+                .from(table(tableName))
+                .where(condition))
+            .doOnNext(record -> rows.increment())
+            .groupBy(record -> record.get("season_name", String.class))
+            // Every season is a group, all of them must be subscribed at once
+            .flatMap(season -> season
+                    .publishOn(Schedulers.parallel())
+                    .collectList()
+                    .map(records -> Map.entry(season.key(), toSeason(records))),
+                Math.max(1, seasonCount))
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+            .blockOptional()
+            .orElse(Map.of());
+    }
+
+    private SeasonStatistics toSeason(List<Record> records) {
+        Map<String, Statistics> entities = HashMap.newHashMap(records.size());
+        var teams = new HashMap<String, String>();
+        records.forEach(record -> put(record, entities, teams));
+        return SeasonStatistics.loaded(entities, teams);
+    }
+
+    private void put(Record record, Map<String, Statistics> entities, Map<String, String> teams) {
+        var name = record.get(nameColumn, String.class);
+        entities.put(name, StatisticsRows.toStatistics(record));
+        var team = teamColumn == null ? null : record.get(teamColumn, String.class);
+        if (team != null) {
+            teams.put(name, team);
+        }
+    }
+
+    /**
+     * Upserts only the rows changed since the version this member last stored, in one statement.
+     */
+    @Override
+    public void store(String seasonName, SeasonStatistics season) {
+        storeTimer.run(() -> {
+            var changes = storedVersions.changedRows(seasonName, season);
+            if (!changes.rows().isEmpty()) {
+                StatisticsRows.upsertAll(dsl, tableName, nameColumn, teamColumn, primaryKey, changes.rows()).block();
+            }
+            storedVersions.stored(seasonName, changes);
+        });
+    }
+
+    @Override
+    public void storeAll(Map<String, SeasonStatistics> map) {
+        map.forEach(this::store);
+    }
+
+    @Override
+    public void delete(String key) {
+        storedVersions.forget(key);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        keys.forEach(storedVersions::forget);
+    }
+
+    /**
+     * Seasons of the table, plus the ones of the snapshot that never made it to the database.
+     */
+    @Override
+    public Iterable<String> loadAllKeys() {
+        var keys = new LinkedHashSet<String>();
+        Flux.from(dsl.selectDistinct(field("season_name"))
+                .from(table(tableName)))
+            .map(record -> record.get(field("season_name", String.class)))
+            .toIterable()
+            .forEach(keys::add);
+        var snapshot = snapshot();
+        if (snapshot != null) {
+            keys.addAll(snapshot.seasonNames());
+        }
+        progress.expect(keys.size());
+        return keys;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (snapshot != null) {
+            snapshot.close();
+            snapshot = null;
+        }
+    }
+
+    private synchronized StatisticsSnapshot snapshot() {
+        var config = snapshots;
+        if (snapshotOpened || config == null || !config.enabled()) {
+            return snapshot;
+        }
+        snapshotOpened = true;
+        var file = snapshotFile(config, tableName);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            snapshot = StatisticsSnapshot.open(file);
+            LOG.info("Loading {} from snapshot {} taken at {}", tableName, file, snapshot.watermark());
+        } catch (IOException e) {
+            LOG.warn("Ignoring snapshot {}, loading {} from the database", file, tableName, e);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.lapysh.init;
+
+import com.hazelcast.core.HazelcastInstance;
+import dev.lapysh.cfg.SnapshotConfiguration;
+import dev.lapysh.core.model.SeasonStatistics;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Periodically writes the seasons this member owns in the season maps to local snapshot files, read back by
+ * {@link SeasonStatisticsMapStore} on the next cold start. Only local entries are read, a snapshot moves no season
+ * across the cluster. The watermark is taken before the maps are read and moved back by
+ * {@code nba.snapshot.reconcile-margin} to cover clock skew between the members writing {@code updated_at}.
+ */
+@Singleton
+@Requires(property = "nba.snapshot.enabled", value = "true")
+public class SnapshotWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotWriter.class);
+
+    private final HazelcastInstance hcInst;
+    private final SnapshotConfiguration config;
+
+    public SnapshotWriter(HazelcastInstance hcInst, SnapshotConfiguration config) {
+        this.hcInst = hcInst;
+        this.config = config;
+    }
+
+    @Scheduled(fixedDelay = "${nba.snapshot.interval:5m}", initialDelay = "${nba.snapshot.interval:5m}")
+    public void writeSnapshots() {
+        write("playerDataMap", "statistics_players");
+        write("teamDataMap", "statistics_teams");
+    }
+
+    @PreDestroy
+    void writeOnShutdown() {
+        if (hcInst.getLifecycleService().isRunning()) {
+            writeSnapshots();
+        }
+    }
+
+    private void write(String mapName, String tableName) {
+        var file = SeasonStatisticsMapStore.snapshotFile(config, tableName);
+        var watermark = LocalDateTime.now().minus(config.reconcileMargin());
+        var start = System.nanoTime();
+        try {
+            var map = hcInst.<String, SeasonStatistics>getMap(mapName);
+            Map<String, SeasonStatistics> seasons = map.getAll(map.localKeySet());
+            StatisticsSnapshot.write(file, seasons, watermark);
+            LOG.info("Wrote snapshot of {} seasons of {} to {} in {} ms", seasons.size(), mapName, file,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Failed to write snapshot of {} to {}", mapName, file, e);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package dev.lapysh.init;
+
+import dev.lapysh.cfg.RebuildConfiguration;
+import dev.lapysh.cfg.WindowConfiguration;
+import dev.lapysh.core.IngestionDeduplicator;
+import dev.lapysh.core.model.SeasonDelta;
+import dev.lapysh.core.model.TeamGames;
+import dev.lapysh.core.storage.CareerStorage;
+import dev.lapysh.core.storage.StatisticsStorage;
+import dev.lapysh.in.model.PlayerGameData;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+
+/**
+ * Recomputes the player and team statistics from the raw {@code players_data} rows.
+ * <p>
+ * Each hash partition of {@code players_data} is streamed on its own connection, chunks of rows are folded into
+ * per-season {@link SeasonDelta} partials with fork/join and the partials are merged. The result replaces the
+ * seasons in the statistics tables and {@code team_games} within one transaction, then in the maps.
+ * <p>
+ * The seasons are fenced by the {@link IngestionDeduplicator} first: new lines of them are rejected with 503 and
+ * the lines in flight written and merged, so no line is missing from the result nor merged into the statistics it
+ * replaces. The fence is lifted once the seasons are replaced, or after {@code nba.rebuild.fence-timeout} if this
+ * member fails meanwhile. Without deduplication ({@code nba.dedup.enabled: false}) nothing is fenced, rebuild a
+ * season then while it is not being written to.
+ */
+@Singleton
+public class StatisticsRebuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatisticsRebuilder.class);
+    private static final int CHUNK_ROWS = 64 * 1024;
+    private static final int LEAF_ROWS = 4096;
+
+    private final DSLContext dsl;
+    private final StatisticsStorage storage;
+    private final CareerStorage careers;
+    private final IngestionDeduplicator deduplicator;
+    private final RebuildConfiguration config;
+    private final WindowConfiguration window;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public StatisticsRebuilder(@Named("r2dbcPooledDslContext") DSLContext dsl,
+                               StatisticsStorage storage,
+                               CareerStorage careers,
+                               IngestionDeduplicator deduplicator,
+                               RebuildConfiguration config,
+                               WindowConfiguration window) {
+        this.dsl = dsl;
+        this.storage = storage;
+        this.careers = careers;
+        this.deduplicator = deduplicator;
+        this.config = config;
+        this.window = window;
+    }
+
+    /**
+     * @param seasonName season to rebuild, all seasons of {@code players_data} if {@code null}
+     */
+    public Mono<RebuildReport> rebuild(String seasonName) {
+        if (!running.compareAndSet(false, true)) {
+            return Mono.error(new IllegalStateException("A rebuild is already running"));
+        }
+        var start = System.nanoTime();
+        return seasons(seasonName)
+            .flatMap(seasonNames -> Mono.usingWhen(
+                deduplicator.fence(seasonNames, config.fenceTimeout()).thenReturn(seasonNames),
+                fenced -> partitions()
+                    .flatMap(partition -> aggregate(partition, fenced))
+                    .reduceWith(HashMap::new, StatisticsRebuilder::merge)
+                    .flatMap(seasons -> {
+                        var aggregated = System.nanoTime();
+                        return swap(seasons).then(Mono.fromSupplier(() -> report(seasons, start, aggregated)));
+                    }),
+                deduplicator::unfence))
+            .doOnNext(report -> LOG.info("Rebuilt statistics: {}", report))
+            .doFinally(signal -> running.set(false));
+    }
+
+    /**
+     * The season, or all seasons of {@code players_data} if {@code null}.
+     */
+    private Mono<List<String>> seasons(String seasonName) {
+        if (seasonName != null) {
+            return Mono.just(List.of(seasonName));
+        }
+        return Flux.from(dsl.selectDistinct(field("season_name")).from(table("players_data")))
+            .map(record -> record.get(0, String.class))
+            .collectList();
+    }
+
+    /**
+     * Partitions of {@code players_data}, or the table itself if it is not partitioned.
+     */
+    private Flux<String> partitions() {
+        return Flux.from(dsl.resultQuery(
+                "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = 'players_data'::regclass"))
+            .map(record -> record.get(0, String.class))
+            .collectList()
+            .flatMapMany(partitions -> Flux.fromIterable(partitions.isEmpty() ? List.of("players_data") : partitions));
+    }
+
+    private Mono<Map<String, SeasonDelta>> aggregate(String partition, List<String> seasonNames) {
+        var select = dsl.select(
+                field("player_name"), field("team_name"), field("season_name"),
+                field("points"), field("rebounds"), field("assists"), field("steals"),
+                field("blocks"), field("fouls"), field("turnovers"), field("minutes_played"), field("game_id"))
+            .from(table(partition));
+        // Chunks and their splits are merged in order, so the recent games of a player end with its latest lines
+        return Flux.from(select
+                .where(field("season_name").in(seasonNames))
+                .orderBy(field("created_at")))
+            .map(StatisticsRebuilder::toLine)
+            .buffer(CHUNK_ROWS)
+            .publishOn(Schedulers.boundedElastic())
+            .map(chunk -> ForkJoinPool.commonPool().invoke(new AggregateTask(chunk, 0, chunk.size(), window.size())))
+            .reduceWith(HashMap::new, StatisticsRebuilder::merge);
+    }
+
+    /**
+     * The games of the rebuilt seasons are all closed, see {@link TeamGames#closed}. Seasons without games lose
+     * their {@code team_games} row.
+     */
+    private Mono<Void> swap(Map<String, SeasonDelta> seasons) {
+        if (seasons.isEmpty()) {
+            return Mono.empty();
+        }
+        var players = new ArrayList<StatisticsRows.StatisticsRow>();
+        var teams = new ArrayList<StatisticsRows.StatisticsRow>();
+        var games = new HashMap<String, byte[]>();
+        seasons.forEach((season, delta) -> {
+            delta.players().forEach((name, stats) ->
+                players.add(new StatisticsRows.StatisticsRow(season, name, stats, delta.playerTeams().get(name))));
+            delta.teams().forEach((name, stats) ->
+                teams.add(new StatisticsRows.StatisticsRow(season, name, stats)));
+            var closed = TeamGames.closed(delta.games().values());
+            if (closed != null) {
+                games.put(season, closed.toBytes());
+            }
+        });
+        var tables = Mono.from(dsl.transactionPublisher(trx -> Flux.concat(
+            Mono.from(trx.dsl().deleteFrom(table("statistics_players"))
+                .where(field("season_name").in(seasons.keySet()))),
+            Mono.from(trx.dsl().deleteFrom(table("statistics_teams"))
+                .where(field("season_name").in(seasons.keySet()))),
+            StatisticsRows.upsertAll(trx.dsl(),
+                "statistics_players", "player_name", "team_name", "pk_statistics_players", players),
+            StatisticsRows.upsertAll(trx.dsl(), "statistics_teams", "team_name", null, "pk_statistics_teams", teams),
+            Mono.from(trx.dsl().deleteFrom(table("team_games"))
+                .where(field("season_name").in(seasons.keySet()))),
+            insertGames(trx.dsl(), games)
+        ).then()));
+        return tables.then(Flux.fromIterable(seasons.entrySet())
+            .flatMap(season -> Mono.when(
+                storage.replace(season.getKey(), season.getValue()),
+                careers.replace(season.getKey(), season.getValue())))
+            .then());
+    }
+
+    private static Mono<Void> insertGames(DSLContext dsl, Map<String, byte[]> games) {
+        if (games.isEmpty()) {
+            return Mono.empty();
+        }
+        var updatedAt = LocalDateTime.now();
+        var insert = dsl.insertInto(table("team_games"),
+            field("season_name", String.class), field("games", byte[].class), field("updated_at", LocalDateTime.class));
+        for (var season : games.entrySet()) {
+            insert = insert.values(season.getKey(), season.getValue(), updatedAt);
+        }
+        return Mono.from(insert).then();
+    }
+
+    private static RebuildReport report(Map<String, SeasonDelta> seasons, long start, long aggregated) {
+        var rows = seasons.values().stream().mapToLong(SeasonDelta::lines).sum();
+        var end = System.nanoTime();
+        var aggregateMillis = (aggregated - start) / 1_000_000;
+        var totalMillis = (end - start) / 1_000_000;
+        return new RebuildReport(
+            seasons.size(),
+            rows,
+            aggregateMillis,
+            totalMillis - aggregateMillis,
+            rows == 0 ? 0 : (long) (rows * 1e9 / (end - start)),
+            rows == 0 ? 0 : (end - start) / 1e6 * 1_000_000 / rows
+        );
+    }
+
+    private static Map<String, SeasonDelta> merge(Map<String, SeasonDelta> into, Map<String, SeasonDelta> from) {
+        from.forEach((season, delta) -> into.merge(season, delta, SeasonDelta::merge));
+        return into;
+    }
+
+    private static PlayerGameData toLine(Record record) {
+        var line = new PlayerGameData();
+        line.setPlayerName(record.get(0, String.class));
+        line.setTeamName(record.get(1, String.class));
+        line.setSeasonName(record.get(2, String.class));
+        line.setPoints(record.get(3, Integer.class));
+        line.setRebounds(record.get(4, Integer.class));
+        line.setAssists(record.get(5, Integer.class));
+        line.setSteals(record.get(6, Integer.class));
+        line.setBlocks(record.get(7, Integer.class));
+        line.setFouls(record.get(8, Integer.class));
+        line.setTurnovers(record.get(9, Integer.class));
+        line.setMinutesPlayed(record.get(10, Float.class));
+        line.setGameId(record.get(11, UUID.class));
+        return line;
+    }
+
+    /**
+     * Folds {@code lines[from, to)} into per-season partials, splitting ranges above {@link #LEAF_ROWS} rows.
+     */
+    private static final class AggregateTask extends RecursiveTask<Map<String, SeasonDelta>> {
+
+        private final List<PlayerGameData> lines;
+        private final int from;
+        private final int to;
+        private final int windowCapacity;
+
+        private AggregateTask(List<PlayerGameData> lines, int from, int to, int windowCapacity) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+            this.windowCapacity = windowCapacity;
+        }
+
+        @Override
+        protected Map<String, SeasonDelta> compute() {
+            if (to - from <= LEAF_ROWS) {
+                var seasons = new HashMap<String, SeasonDelta>();
+                for (int i = from; i < to; i++) {
+                    var line = lines.get(i);
+                    seasons.computeIfAbsent(line.getSeasonName(), season -> SeasonDelta.complete(windowCapacity))
+                        .add(line);
+                }
+                return seasons;
+            }
+            var middle = (from + to) >>> 1;
+            var left = new AggregateTask(lines, from, middle, windowCapacity);
+            left.fork();
+            var right = new AggregateTask(lines, middle, to, windowCapacity).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    /**
+     * @param aggregateMillis streaming and aggregating the raw rows
+     * @param swapMillis      writing the statistics tables and the maps
+     * @param millisPerMillionRows end to end time scaled to one million raw rows
+     */
+    public record RebuildReport(int seasons,
+                                long rows,
+                                long aggregateMillis,
+                                long swapMillis,
+                                long rowsPerSecond,
+                                double millisPerMillionRows) {
+    }
+}
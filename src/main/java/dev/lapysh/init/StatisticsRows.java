@@ -0,0 +1,189 @@
+package dev.lapysh.init;
+
+import dev.lapysh.core.model.QuantileSketch;
+import dev.lapysh.core.model.RecentGames;
+import dev.lapysh.core.model.Statistics;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.Record;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+
+/**
+ * Mapping between {@link Statistics} and the rows of {@code statistics_players} / {@code statistics_teams}.
+ */
+final class StatisticsRows {
+
+    private static final Field<Object> SEASON_NAME = field("season_name");
+    // Column name suffix of every stat, by stat
+    private static final List<String> STAT_COLUMNS = List.of(
+        "points",
+        "rebounds",
+        "assists",
+        "steals",
+        "blocks",
+        "fouls",
+        "turnovers",
+        "minutes_played"
+    );
+    // avg_, var_, min_ and max_ of every stat, then count_of_rows and updated_at
+    private static final List<Field<Object>> STATISTICS_COLUMNS = Stream.of(
+            STAT_COLUMNS.stream().map(stat -> "avg_" + stat),
+            STAT_COLUMNS.stream().map(stat -> "var_" + stat),
+            STAT_COLUMNS.stream().map(stat -> "min_" + stat),
+            STAT_COLUMNS.stream().map(stat -> "max_" + stat),
+            Stream.of("count_of_rows", "updated_at"))
+        .flatMap(Function.identity())
+        .map(DSL::field)
+        .toList();
+    // Typed, so that a missing sketch binds as a null bytea
+    private static final Field<byte[]> SKETCH = field("sketch", SQLDataType.BLOB);
+    private static final Field<byte[]> RECENT_GAMES = field("recent_games", SQLDataType.BLOB);
+
+    // At most 39 bind parameters per row, Postgres accepts at most 65535 per statement
+    static final int MAX_ROWS_PER_STATEMENT = 1500;
+
+    private StatisticsRows() {
+    }
+
+    /**
+     * Rows written before the spread of the stats was stored get no variance and the average as minimum and
+     * maximum, rows written before sketches (recent games) were stored get none.
+     */
+    static Statistics toStatistics(Record record) {
+        var countOfRows = record.get("count_of_rows", Long.class);
+        var values = new double[Statistics.VALUES_LENGTH];
+        for (int stat = 0; stat < Statistics.STATS; stat++) {
+            var column = STAT_COLUMNS.get(stat);
+            var average = record.get("avg_" + column, Double.class);
+            var variance = record.get("var_" + column, Double.class);
+            var min = record.get("min_" + column, Double.class);
+            var max = record.get("max_" + column, Double.class);
+            values[Statistics.SUM + stat] = countOfRows * average;
+            values[Statistics.M2 + stat] = variance == null ? 0 : countOfRows * variance;
+            values[Statistics.MIN + stat] = min == null ? average : min;
+            values[Statistics.MAX + stat] = max == null ? average : max;
+        }
+        var sketch = record.get("sketch", byte[].class);
+        var recent = record.get("recent_games", byte[].class);
+        return new Statistics(countOfRows, values, sketch == null ? null : QuantileSketch.fromBytes(sketch),
+            recent == null ? null : RecentGames.fromBytes(recent));
+    }
+
+    /**
+     * Builds {@code INSERT ... ON CONFLICT DO UPDATE} statements upserting all given rows, one per
+     * {@link #MAX_ROWS_PER_STATEMENT} rows to stay below the bind parameter limit of Postgres.
+     *
+     * @param teamColumn column of the team of a player, {@code null} if the table has none
+     */
+    static List<Query> upserts(DSLContext dsl,
+                               String tableName,
+                               String nameColumn,
+                               String teamColumn,
+                               String primaryKey,
+                               List<StatisticsRow> rows) {
+        var queries = new ArrayList<Query>();
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            var to = Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT);
+            queries.add(upsert(dsl, tableName, nameColumn, teamColumn, primaryKey, rows.subList(from, to)));
+        }
+        return queries;
+    }
+
+    /**
+     * Runs {@link #upserts} one statement after the other.
+     */
+    static Mono<Void> upsertAll(DSLContext dsl,
+                                String tableName,
+                                String nameColumn,
+                                String teamColumn,
+                                String primaryKey,
+                                List<StatisticsRow> rows) {
+        return Flux.fromIterable(upserts(dsl, tableName, nameColumn, teamColumn, primaryKey, rows))
+            .concatMap(Mono::from)
+            .then();
+    }
+
+    private static Query upsert(DSLContext dsl,
+                                String tableName,
+                                String nameColumn,
+                                String teamColumn,
+                                String primaryKey,
+                                Collection<StatisticsRow> rows) {
+        var columns = new ArrayList<Field<?>>();
+        columns.add(field(nameColumn));
+        columns.add(SEASON_NAME);
+        columns.addAll(STATISTICS_COLUMNS);
+        columns.add(SKETCH);
+        columns.add(RECENT_GAMES);
+        if (teamColumn != null) {
+            columns.add(field(teamColumn, String.class));
+        }
+
+        var updatedAt = LocalDateTime.now();
+        var insert = dsl.insertInto(table(tableName), columns);
+        for (var row : rows) {
+            var stats = row.statistics();
+            var values = new ArrayList<Object>(columns.size());
+            values.add(row.name());
+            values.add(row.seasonName());
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                values.add(stats.average(stat));
+            }
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                values.add(stats.variance(stat));
+            }
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                values.add(stats.min(stat));
+            }
+            for (int stat = 0; stat < Statistics.STATS; stat++) {
+                values.add(stats.max(stat));
+            }
+            values.add(stats.n());
+            values.add(updatedAt);
+            values.add(stats.sketch() == null ? null : stats.sketch().toBytes());
+            values.add(stats.recent() == null ? null : stats.recent().toBytes());
+            if (teamColumn != null) {
+                values.add(row.team());
+            }
+            insert = insert.values(values);
+        }
+
+        var updates = new LinkedHashMap<Field<?>, Field<?>>();
+        STATISTICS_COLUMNS.forEach(column -> updates.put(column, DSL.excluded(column)));
+        updates.put(SKETCH, DSL.excluded(SKETCH));
+        updates.put(RECENT_GAMES, DSL.excluded(RECENT_GAMES));
+        if (teamColumn != null) {
+            // Rows of players whose team is not known yet keep the stored one
+            var team = field(teamColumn, String.class);
+            updates.put(team, DSL.coalesce(DSL.excluded(team), team));
+        }
+        return insert.onConflictOnConstraint(DSL.constraint(primaryKey))
+            .doUpdate()
+            .set(updates);
+    }
+
+    /**
+     * @param team team of a player, {@code null} for teams or if not known
+     */
+    record StatisticsRow(String seasonName, String name, Statistics statistics, String team) {
+
+        StatisticsRow(String seasonName, String name, Statistics statistics) {
+            this(seasonName, name, statistics, null);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package dev.lapysh.init;
+
+import dev.lapysh.core.model.QuantileSketch;
+import dev.lapysh.core.model.RecentGames;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the seasons of one statistics map, read through a read-only memory mapping.
+ * <pre>
+ * header   magic "NBASNAP\0", format version, Statistics.VALUES_LENGTH (int32 each after the magic),
+ *          watermark (int64, microseconds since the epoch, UTC), season count (int32)
+ * season   name, player (team) count (int32), then per player (team): name, team, n (int64),
+ *          values (float64 each), sketch, recent games
+ * trailer  CRC32C of everything between header and trailer (int64)
+ * </pre>
+ * Names are an int32 byte length followed by UTF-8, the team of a player is length -1 if not known and always
+ * for teams. The sketch and the recent games are an int32 byte length followed by {@link QuantileSketch#toBytes()}
+ * ({@link RecentGames#toBytes()}), length -1 if there are none. All numbers are big-endian.
+ */
+final class StatisticsSnapshot implements AutoCloseable {
+
+    private static final byte[] MAGIC = {'N', 'B', 'A', 'S', 'N', 'A', 'P', 0};
+    private static final int FORMAT_VERSION = 4;
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+    private static final int HEADER_BYTES = MAGIC.length + Integer.BYTES * 2 + Long.BYTES + Integer.BYTES;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE =
+        ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment data;
+    private final LocalDateTime watermark;
+    private final Map<String, Long> seasonOffsets;
+
+    private StatisticsSnapshot(Arena arena, MemorySegment data, LocalDateTime watermark, Map<String, Long> offsets) {
+        this.arena = arena;
+        this.data = data;
+        this.watermark = watermark;
+        this.seasonOffsets = offsets;
+    }
+
+    /**
+     * Writes the seasons to a temporary file and moves it over {@code file}, so readers always see a complete
+     * snapshot.
+     */
+    static void write(Path file, Map<String, SeasonStatistics> seasons, LocalDateTime watermark) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var fileOut = Files.newOutputStream(temp)) {
+            var header = new DataOutputStream(fileOut);
+            header.write(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeInt(Statistics.VALUES_LENGTH);
+            header.writeLong(ChronoUnit.MICROS.between(EPOCH, watermark));
+            header.writeInt(seasons.size());
+
+            var crc = new CRC32C();
+            var body = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), 1 << 16));
+            for (var season : seasons.entrySet()) {
+                writeName(body, season.getKey());
+                body.writeInt(season.getValue().entities.size());
+                for (var entity : season.getValue().entities.entrySet()) {
+                    writeName(body, entity.getKey());
+                    writeName(body, season.getValue().teams.get(entity.getKey()));
+                    body.writeLong(entity.getValue().n());
+                    for (var value : entity.getValue().values()) {
+                        body.writeDouble(value);
+                    }
+                    var sketch = entity.getValue().sketch();
+                    writeBytes(body, sketch == null ? null : sketch.toBytes());
+                    var recent = entity.getValue().recent();
+                    writeBytes(body, recent == null ? null : recent.toBytes());
+                }
+            }
+            body.flush();
+            header.writeLong(crc.getValue());
+            header.flush();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the snapshot and checks its format and checksum.
+     *
+     * @throws IOException if the file cannot be read or is not a valid snapshot of the current format
+     */
+    static StatisticsSnapshot open(Path file) throws IOException {
+        var arena = Arena.ofShared();
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (data.byteSize() < HEADER_BYTES + Long.BYTES
+                || data.asSlice(0, MAGIC.length).mismatch(MemorySegment.ofArray(MAGIC)) != -1) {
+                throw new IOException("Not a statistics snapshot: " + file);
+            }
+            var offset = (long) MAGIC.length;
+            var format = data.get(INT, offset);
+            var valuesLength = data.get(INT, offset + Integer.BYTES);
+            if (format != FORMAT_VERSION || valuesLength != Statistics.VALUES_LENGTH) {
+                throw new IOException("Snapshot " + file + " has format " + format + "/" + valuesLength
+                    + ", expected " + FORMAT_VERSION + "/" + Statistics.VALUES_LENGTH);
+            }
+            var watermark = EPOCH.plus(data.get(LONG, offset + Integer.BYTES * 2), ChronoUnit.MICROS);
+            var seasonCount = data.get(INT, offset + Integer.BYTES * 2 + Long.BYTES);
+
+            var bodyEnd = data.byteSize() - Long.BYTES;
+            var crc = new CRC32C();
+            crc.update(data.asSlice(HEADER_BYTES, bodyEnd - HEADER_BYTES).asByteBuffer());
+            if (crc.getValue() != data.get(LONG, bodyEnd)) {
+                throw new IOException("Snapshot " + file + " is corrupted");
+            }
+
+            Map<String, Long> offsets = HashMap.newHashMap(seasonCount);
+            var entityBytes = Long.BYTES + (long) Double.BYTES * Statistics.VALUES_LENGTH;
+            offset = HEADER_BYTES;
+            for (int season = 0; season < seasonCount; season++) {
+                var seasonOffset = offset;
+                var seasonName = readName(data, offset);
+                offset += Integer.BYTES + data.get(INT, offset);
+                var entities = data.get(INT, offset);
+                offset += Integer.BYTES;
+                for (int entity = 0; entity < entities; entity++) {
+                    offset += Integer.BYTES + data.get(INT, offset);
+                    offset += Integer.BYTES + Math.max(0, data.get(INT, offset)) + entityBytes;
+                    offset += Integer.BYTES + Math.max(0, data.get(INT, offset));
+                }
+                offsets.put(seasonName, seasonOffset);
+            }
+            return new StatisticsSnapshot(arena, data, watermark, offsets);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e instanceof IOException io ? io : new IOException("Cannot read snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Rows updated after this moment may be newer in the database than in the snapshot.
+     */
+    LocalDateTime watermark() {
+        return watermark;
+    }
+
+    Set<String> seasonNames() {
+        return seasonOffsets.keySet();
+    }
+
+    boolean contains(String seasonName) {
+        return seasonOffsets.containsKey(seasonName);
+    }
+
+    /**
+     * Decodes one season straight from the mapping into {@code entities} and {@code teams}.
+     */
+    void read(String seasonName, Map<String, Statistics> entities, Map<String, String> teams) {
+        var offset = seasonOffsets.get(seasonName);
+        offset += Integer.BYTES + data.get(INT, offset);
+        var entityCount = data.get(INT, offset);
+        offset += Integer.BYTES;
+        for (int entity = 0; entity < entityCount; entity++) {
+            var name = readName(data, offset);
+            offset += Integer.BYTES + data.get(INT, offset);
+            var team = readName(data, offset);
+            offset += Integer.BYTES + Math.max(0, data.get(INT, offset));
+            if (team != null) {
+                teams.put(name, team);
+            }
+            var n = data.get(LONG, offset);
+            offset += Long.BYTES;
+            var values = new double[Statistics.VALUES_LENGTH];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = data.get(DOUBLE, offset);
+                offset += Double.BYTES;
+            }
+            var sketch = readBytes(data, offset);
+            offset += Integer.BYTES + (sketch == null ? 0 : sketch.length);
+            var recent = readBytes(data, offset);
+            offset += Integer.BYTES + (recent == null ? 0 : recent.length);
+            entities.put(name, new Statistics(n, values, sketch == null ? null : QuantileSketch.fromBytes(sketch),
+                recent == null ? null : RecentGames.fromBytes(recent)));
+        }
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private static void writeName(DataOutputStream out, String name) throws IOException {
+        if (name == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = name.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readName(MemorySegment data, long offset) {
+        var length = data.get(INT, offset);
+        if (length < 0) {
+            return null;
+        }
+        var bytes = data.asSlice(offset + Integer.BYTES, length).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(MemorySegment data, long offset) {
+        var length = data.get(INT, offset);
+        return length < 0 ? null : data.asSlice(offset + Integer.BYTES, length).toArray(ValueLayout.JAVA_BYTE);
+    }
+}
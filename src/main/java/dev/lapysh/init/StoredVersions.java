@@ -0,0 +1,57 @@
+package dev.lapysh.init;
+
+import dev.lapysh.core.model.SeasonStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version of every season value the database rows of this member's map store match: the version it loaded or
+ * last stored successfully. Write-behind only runs on the primary of a season, so after a migration the new
+ * primary knows nothing about the season and stores it whole once.
+ */
+final class StoredVersions {
+
+    private final Map<String, Stored> seasons = new ConcurrentHashMap<>();
+
+    /**
+     * Records a season just loaded, before anyone else can change it.
+     */
+    void stored(String seasonName, SeasonStatistics season) {
+        seasons.put(seasonName, new Stored(season.epoch, season.version));
+    }
+
+    void stored(String seasonName, Changes changes) {
+        seasons.put(seasonName, changes.version());
+    }
+
+    /**
+     * The season may be merged into while the rows are collected, so its epoch and version are taken first: rows
+     * changed after that are written now or by the next store, never skipped.
+     *
+     * @return rows of the players (teams) of the season that are out of date, and the version they are at least at
+     */
+    Changes changedRows(String seasonName, SeasonStatistics season) {
+        var version = new Stored(season.epoch, season.version);
+        var stored = seasons.get(seasonName);
+        var changed = stored != null && stored.epoch() == version.epoch() ?
+            season.changedSince(stored.version()) :
+            season.entities;
+        var rows = new ArrayList<StatisticsRows.StatisticsRow>(changed.size());
+        changed.forEach((name, stats) ->
+            rows.add(new StatisticsRows.StatisticsRow(seasonName, name, stats, season.teams.get(name))));
+        return new Changes(rows, version);
+    }
+
+    void forget(String seasonName) {
+        seasons.remove(seasonName);
+    }
+
+    record Changes(List<StatisticsRows.StatisticsRow> rows, Stored version) {
+    }
+
+    record Stored(long epoch, long version) {
+    }
+}
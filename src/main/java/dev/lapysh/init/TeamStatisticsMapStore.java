@@ -1,141 +1,84 @@
 package dev.lapysh.init;
 
-import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.map.MapLoaderLifecycleSupport;
-import com.hazelcast.map.MapStore;
-import dev.lapysh.core.model.ContinuousAverage;
-import dev.lapysh.core.model.Statistics;
-import org.jooq.DSLContext;
-import org.jooq.impl.DSL;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.SeasonVersion;
+import dev.lapysh.core.model.TeamGames;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.jooq.impl.DSL.excluded;
 import static org.jooq.impl.DSL.field;
 import static org.jooq.impl.DSL.table;
 
-public class TeamStatisticsMapStore implements MapStore<String, Map<String, Statistics>>, MapLoaderLifecycleSupport {
+/**
+ * Stores the per-game team totals of a season, {@link TeamGames}, next to its rows: one {@code team_games} row per
+ * season, rewritten whenever the season changed since it was last stored.
+ */
+public class TeamStatisticsMapStore extends SeasonStatisticsMapStore {
 
-    private static volatile DSLContext dsl;
+    // Version of every season whose games this member loaded or stored last
+    private final Map<String, SeasonVersion> storedGames = new ConcurrentHashMap<>();
 
-    public static void setDsl(DSLContext dsl) {
-        TeamStatisticsMapStore.dsl = dsl;
+    public TeamStatisticsMapStore() {
+        super("statistics_teams", "team_name", null, "pk_statistics_teams");
     }
 
+    /**
+     * Reads the games of the seasons with one query. Open games keep their last line time, the next sweep of
+     * {@link dev.lapysh.core.storage.SeasonStatisticsStorage#closeIdleGames(long)} closes the idle ones. Seasons
+     * stored before the table existed have no games until they are rebuilt.
+     */
     @Override
-    public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+    protected void restore(Map<String, SeasonStatistics> seasons) {
+        if (seasons.isEmpty()) {
+            return;
+        }
+        Flux.from(dsl().select(field("season_name", String.class), field("games", byte[].class))
+                .from(table("team_games"))
+                .where(field("season_name").in(seasons.keySet())))
+            .toIterable()
+            .forEach(record -> {
+                var seasonName = record.value1();
+                var season = seasons.get(seasonName);
+                season.games = TeamGames.fromBytes(record.value2());
+                storedGames.put(seasonName, new SeasonVersion(season.epoch, season.version));
+            });
     }
 
     @Override
-    public Map<String, Statistics> load(String seasonName) {
-        return Flux.from(dsl.select()
-                .from(table("statistics_teams"))
-                .where(field("season_name").eq(seasonName)))
-            .map(record -> {
-                var countOfRows = record.get("count_of_rows", Integer.class);
-                return Map.entry(
-                    record.get("team_name", String.class),
-                    new Statistics(
-                        new ContinuousAverage(countOfRows, record.get("avg_points", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_rebounds", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_assists", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_steals", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_blocks", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_fouls", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_turnovers", Double.class)),
-                        new ContinuousAverage(countOfRows, record.get("avg_minutes_played", Double.class))
-                    )
-                );
-            })
-            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+    public void store(String seasonName, SeasonStatistics season) {
+        // Taken before the games are encoded, games added meanwhile come with a newer version
+        var version = new SeasonVersion(season.epoch, season.version);
+        super.store(seasonName, season);
+        if (season.games == null || version.equals(storedGames.get(seasonName))) {
+            return;
+        }
+        var games = field("games", byte[].class);
+        var updatedAt = field("updated_at", LocalDateTime.class);
+        Mono.from(dsl().insertInto(table("team_games"), field("season_name", String.class), games, updatedAt)
+                .values(seasonName, season.games.toBytes(), LocalDateTime.now())
+                .onConflict(field("season_name"))
+                .doUpdate()
+                .set(games, excluded(games))
+                .set(updatedAt, excluded(updatedAt)))
             .block();
-    }
-
-    @Override
-    public Map<String, Map<String, Statistics>> loadAll(Collection<String> keys) {
-        return Map.of();
-    }
-
-    @Override
-    public void store(String seasonName, Map<String, Statistics> teamStats) {
-        Flux.fromIterable(teamStats.entrySet())
-            .flatMap(entry -> {
-                String teamName = entry.getKey();
-                Statistics stats = entry.getValue();
-                return Mono.from(dsl.insertInto(table("statistics_teams"))
-                    .columns(
-                        field("team_name"),
-                        field("season_name"),
-                        field("avg_points"),
-                        field("avg_rebounds"),
-                        field("avg_assists"),
-                        field("avg_steals"),
-                        field("avg_blocks"),
-                        field("avg_fouls"),
-                        field("avg_turnovers"),
-                        field("avg_minutes_played"),
-                        field("count_of_rows"),
-                        field("updated_at")
-                    )
-                    .values(
-                        teamName,
-                        seasonName,
-                        stats.avgPoints().average,
-                        stats.avgRebounds().average,
-                        stats.avgAssists().average,
-                        stats.avgSteals().average,
-                        stats.avgBlocks().average,
-                        stats.avgFouls().average,
-                        stats.avgTurnovers().average,
-                        stats.avgMinutesPlayed().average,
-                        stats.avgPoints().n,
-                        LocalDateTime.now()
-                    )
-                    .onConflictOnConstraint(DSL.constraint("pk_statistics_teams"))
-                    .doUpdate()
-                    .set(field("avg_points"), stats.avgPoints().average)
-                    .set(field("avg_rebounds"), stats.avgRebounds().average)
-                    .set(field("avg_assists"), stats.avgAssists().average)
-                    .set(field("avg_steals"), stats.avgSteals().average)
-                    .set(field("avg_blocks"), stats.avgBlocks().average)
-                    .set(field("avg_fouls"), stats.avgFouls().average)
-                    .set(field("avg_turnovers"), stats.avgTurnovers().average)
-                    .set(field("avg_minutes_played"), stats.avgMinutesPlayed().average)
-                    .set(field("count_of_rows"), stats.avgPoints().n)
-                    .set(field("updated_at"), LocalDateTime.now())
-                );
-            })
-            .then()
-            .block();
-    }
-
-    @Override
-    public void storeAll(Map<String, Map<String, Statistics>> map) {
-        map.forEach(this::store);
+        storedGames.put(seasonName, version);
     }
 
     @Override
     public void delete(String key) {
+        super.delete(key);
+        storedGames.remove(key);
     }
 
     @Override
     public void deleteAll(Collection<String> keys) {
+        super.deleteAll(keys);
+        keys.forEach(storedGames::remove);
     }
-
-    @Override
-    public Iterable<String> loadAllKeys() {
-        return Flux.from(dsl.selectDistinct(field("season_name"))
-                .from(table("statistics_teams")))
-            .map(record -> record.get(field("season_name", String.class)))
-            .toIterable();
-    }
-
-    @Override
-    public void destroy() {
-    }
-
 }
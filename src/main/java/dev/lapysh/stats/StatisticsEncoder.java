@@ -0,0 +1,141 @@
+package dev.lapysh.stats;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.infra.metrics.StageTimer;
+import dev.lapysh.stats.model.StatisticsResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Encodes statistics as JSON Lines straight into pooled {@link ByteBuf} chunks of about {@link #CHUNK_SIZE} bytes.
+ * Chunks are encoded on demand, on the thread requesting them (the event loop writing the response), one Jackson
+ * generator per response and no intermediate strings.
+ * <p>
+ * The time spent encoding a listing is the sum over its chunks, the time the response waits for the client between
+ * chunks is not included.
+ */
+@Singleton
+public class StatisticsEncoder {
+
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final StageTimer encode;
+    private final DistributionSummary encoded;
+
+    public StatisticsEncoder(ObjectMapper objectMapper, StageMetrics metrics) {
+        this.objectMapper = objectMapper;
+        this.encode = metrics.encode();
+        this.encoded = metrics.encoded();
+    }
+
+    /**
+     * @param lines encoded in list order
+     */
+    public Flux<ByteBuf> encode(List<? extends StatisticsResponse> lines) {
+        if (lines.isEmpty()) {
+            return Flux.empty();
+        }
+        return Flux.<ByteBuf, Encoding>generate(
+                () -> new Encoding(lines),
+                (encoding, sink) -> {
+                    var start = System.nanoTime();
+                    try {
+                        sink.next(encoding.nextChunk());
+                        if (encoding.done()) {
+                            sink.complete();
+                        }
+                    } catch (IOException e) {
+                        sink.error(new UncheckedIOException(e));
+                    }
+                    encoding.nanos += System.nanoTime() - start;
+                    return encoding;
+                },
+                Encoding::close)
+            .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease);
+    }
+
+    private final class Encoding extends OutputStream {
+        private final List<? extends StatisticsResponse> lines;
+        private final JsonGenerator generator;
+        private ByteBuf chunk;
+        private int next;
+        private long bytes;
+        private long nanos;
+
+        Encoding(List<? extends StatisticsResponse> lines) {
+            this.lines = lines;
+            try {
+                this.generator = objectMapper.getFactory().createGenerator(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Lines are separated by '\n' below, not by Jackson's default root value separator
+            generator.setRootValueSeparator(null);
+            // This stream is closed below, after the generator releases its buffers
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        ByteBuf nextChunk() throws IOException {
+            chunk = ByteBufAllocator.DEFAULT.buffer(CHUNK_SIZE);
+            while (next < lines.size() && chunk.readableBytes() < CHUNK_SIZE) {
+                objectMapper.writeValue(generator, lines.get(next++));
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+            var full = chunk;
+            chunk = null;
+            bytes += full.readableBytes();
+            return full;
+        }
+
+        boolean done() {
+            return next == lines.size();
+        }
+
+        // Output outside of a chunk, what a failed listing's generator flushes when closed, is dropped
+        @Override
+        public void write(int b) {
+            if (chunk != null) {
+                chunk.writeByte(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (chunk != null) {
+                chunk.writeBytes(b, off, len);
+            }
+        }
+
+        /**
+         * Called once the listing is complete, failed or cancelled, a listing not encoded to the end is a failure.
+         */
+        @Override
+        public void close() {
+            encode.recordNanos(nanos, done());
+            encoded.record(bytes);
+            try {
+                generator.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (chunk != null) {
+                    chunk.release();
+                    chunk = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dev.lapysh.stats;
+
+import dev.lapysh.cfg.ResponseCacheConfiguration;
+import dev.lapysh.core.model.SeasonVersion;
+import dev.lapysh.stats.model.StatisticsResponse;
+import io.micronaut.core.annotation.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCountUtil;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Encoded NDJSON responses of {@code /stats}, one per (kind, season), tagged with the {@link SeasonVersion} they were
+ * encoded from. A response is served as long as the season is at that version and re-encoded by the first read after
+ * a change. Bounded by {@code nba.response-cache.max-bytes}, least recently read responses are evicted first.
+ * <p>
+ * A response is kept as the chunks it was encoded into, retained; every read is served duplicates of them, so
+ * neither a miss nor a hit copies the encoded bytes. Evicted chunks are released.
+ */
+@Singleton
+public class StatisticsResponseCache {
+
+    private final ResponseCacheConfiguration config;
+    private final StatisticsEncoder encoder;
+
+    // Access order, guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public StatisticsResponseCache(ResponseCacheConfiguration config, StatisticsEncoder encoder) {
+        this.config = config;
+        this.encoder = encoder;
+    }
+
+    /**
+     * @param kind    distinguishes responses of the same season, e.g. players and teams
+     * @param version version of the season the statistics are loaded from, {@code null} if the season is not
+     *                versioned (not cached then)
+     * @param load    statistics of the season, subscribed on a miss only
+     */
+    public Flux<ByteBuf> get(String kind,
+                             String seasonName,
+                             @Nullable SeasonVersion version,
+                             Supplier<Mono<? extends List<? extends StatisticsResponse>>> load) {
+        if (!config.enabled() || version == null) {
+            return load.get().flatMapMany(encoder::encode);
+        }
+        var key = new Key(kind, seasonName);
+        return Flux.defer(() -> {
+            var cached = lookup(key, version);
+            return cached != null ? Flux.fromIterable(cached) : encode(key, version, load);
+        }).doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease);
+    }
+
+    private Flux<ByteBuf> encode(Key key,
+                                 SeasonVersion version,
+                                 Supplier<Mono<? extends List<? extends StatisticsResponse>>> load) {
+        return load.get().flatMapMany(lines -> {
+            var encoded = new ArrayList<ByteBuf>();
+            return encoder.encode(lines)
+                .doOnNext(chunk -> encoded.add(chunk.retainedDuplicate()))
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE) {
+                        store(key, version, encoded);
+                    } else {
+                        release(encoded);
+                    }
+                });
+        });
+    }
+
+    /**
+     * @return duplicates of the cached chunks, retained for the caller
+     */
+    private synchronized List<ByteBuf> lookup(Key key, SeasonVersion version) {
+        var entry = entries.get(key);
+        if (entry == null || !entry.version.equals(version)) {
+            return null;
+        }
+        var chunks = new ArrayList<ByteBuf>(entry.chunks.size());
+        entry.chunks.forEach(chunk -> chunks.add(chunk.retainedDuplicate()));
+        return chunks;
+    }
+
+    private synchronized void store(Key key, SeasonVersion version, List<ByteBuf> chunks) {
+        var size = chunks.stream().mapToLong(ByteBuf::readableBytes).sum();
+        if (size > config.maxBytes()) {
+            release(chunks);
+            return;
+        }
+        var previous = entries.put(key, new Entry(version, chunks, size));
+        bytes += size;
+        if (previous != null) {
+            bytes -= previous.size;
+            release(previous.chunks);
+        }
+        var eldest = entries.values().iterator();
+        while (bytes > config.maxBytes()) {
+            var evicted = eldest.next();
+            bytes -= evicted.size;
+            release(evicted.chunks);
+            eldest.remove();
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        entries.values().forEach(entry -> release(entry.chunks));
+        entries.clear();
+        bytes = 0;
+    }
+
+    private static void release(List<ByteBuf> chunks) {
+        chunks.forEach(ByteBuf::release);
+    }
+
+    private record Key(String kind, String seasonName) {
+    }
+
+    private record Entry(SeasonVersion version, List<ByteBuf> chunks, long size) {
+    }
+}
@@ -1,47 +1,271 @@
 package dev.lapysh.stats.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.lapysh.cfg.WindowConfiguration;
 import dev.lapysh.core.PlayerService;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.SeasonVersion;
+import dev.lapysh.stats.StatisticsEncoder;
+import dev.lapysh.stats.StatisticsResponseCache;
+import dev.lapysh.stats.model.CareerStatistics;
+import dev.lapysh.stats.model.PlayerQuantiles;
+import dev.lapysh.stats.model.PlayerStatistics;
+import dev.lapysh.stats.model.StatisticsPage;
 import dev.lapysh.stats.model.StatisticsResponse;
+import dev.lapysh.stats.model.TeamStatistics;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
 import io.micronaut.http.MediaType;
+import io.micronaut.http.MutableHttpResponse;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.netty.buffer.ByteBuf;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Season statistics as JSON Lines, sorted by player (team) name. Responses carry the version of the season they
+ * were built from as {@code ETag}, a matching {@code If-None-Match} is answered with {@code 304 Not Modified}
+ * without encoding the season.
+ * <p>
+ * With any of {@code sort}, {@code order}, {@code minGames}, {@code team}, {@code limit} or {@code after} the
+ * listing is paged instead: the page is selected on the owner of the season and the cursor of the next page, if
+ * any, is returned in {@value #NEXT_CURSOR}. Pages are neither versioned nor cached.
+ * <p>
+ * With {@code window} the players are averaged over their last {@code window} games instead of the whole season;
+ * windowed listings are versioned and cached like full ones and cannot be paged.
+ */
 @Controller("/stats")
 public class StatsController {
 
+    static final int MAX_LIMIT = 1000;
+    static final int DEFAULT_PAGE_LIMIT = 100;
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+
     private final PlayerService service;
-    private final ObjectMapper objectMapper;
+    private final StatisticsResponseCache cache;
+    private final StatisticsEncoder encoder;
+    private final WindowConfiguration windowConfiguration;
 
-    public StatsController(PlayerService service, ObjectMapper objectMapper) {
+    public StatsController(PlayerService service,
+                           StatisticsResponseCache cache,
+                           StatisticsEncoder encoder,
+                           WindowConfiguration windowConfiguration) {
         this.service = service;
-        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.encoder = encoder;
+        this.windowConfiguration = windowConfiguration;
     }
 
+    /**
+     * Teams of a season averaged per player line. This stays the team listing: a game counts per game only once it
+     * is closed, up to {@code nba.team-games.timeout} after its last line, while every line shows here at once and
+     * pages, caches and {@code minGames} keep working on it. Per-game averages are {@code /teams/games}.
+     */
     @Get(uri = "/teams", produces = MediaType.APPLICATION_JSON_STREAM)
-    public Flux<String> getTeamStatistics(String season) {
-        return service.getTeamStatistics(season)
-            .flatMapMany(Flux::fromIterable)
-            .flatMap(statistics ->
-                Mono.fromCallable(() -> convertToJsonWithNewline(statistics))
-                    .subscribeOn(Schedulers.boundedElastic())
-            );
+    public Mono<MutableHttpResponse<Flux<ByteBuf>>> getTeamStatistics(
+        String season,
+        @Nullable @QueryValue String sort,
+        @Nullable @QueryValue String order,
+        @Nullable @QueryValue Long minGames,
+        @Nullable @QueryValue Integer limit,
+        @Nullable @QueryValue String after,
+        @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        if (sort == null && order == null && minGames == null && limit == null && after == null) {
+            return respond("teams", season, ifNoneMatch, service.getTeamSeason(season), PlayerService::teamLines);
+        }
+        return paged(service.getTeamPage(season, sort == null ? "name" : sort, order,
+            minGames == null ? 0 : minGames, pageLimit(limit), after));
     }
 
     @Get(uri = "/players", produces = MediaType.APPLICATION_JSON_STREAM)
-    public Flux<String> getPlayerStatistics(String season) {
-        return service.getPlayerStatistics(season)
-            .flatMapMany(Flux::fromIterable)
-            .flatMap(statistics ->
-                Mono.fromCallable(() -> convertToJsonWithNewline(statistics))
-                    .subscribeOn(Schedulers.boundedElastic())
-            );
+    public Mono<MutableHttpResponse<Flux<ByteBuf>>> getPlayerStatistics(
+        String season,
+        @Nullable @QueryValue String sort,
+        @Nullable @QueryValue String order,
+        @Nullable @QueryValue Long minGames,
+        @Nullable @QueryValue String team,
+        @Nullable @QueryValue Integer limit,
+        @Nullable @QueryValue String after,
+        @Nullable @QueryValue Integer window,
+        @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        var paging = sort != null || order != null || minGames != null || team != null || limit != null
+            || after != null;
+        if (window != null) {
+            if (paging) {
+                throw new HttpStatusException(HttpStatus.BAD_REQUEST, "Windowed listings cannot be paged");
+            }
+            var games = window(window);
+            return respond("players/window=" + games, season, ifNoneMatch, service.getPlayerSeason(season),
+                read -> PlayerService.windowLines(read, games));
+        }
+        if (!paging) {
+            return respond("players", season, ifNoneMatch, service.getPlayerSeason(season),
+                PlayerService::playerLines);
+        }
+        return paged(service.getPlayerPage(season, sort == null ? "name" : sort, order,
+            minGames == null ? 0 : minGames, team, pageLimit(limit), after));
+    }
+
+    /**
+     * Top players of a season by one average, best first, from the leaderboard maintained on ingestion.
+     */
+    @Get(uri = "/players/top", produces = MediaType.APPLICATION_JSON_STREAM)
+    public Mono<MutableHttpResponse<Flux<ByteBuf>>> getTopPlayers(
+        String season,
+        @QueryValue(defaultValue = "avgPoints") String stat,
+        @QueryValue(defaultValue = "10") int limit,
+        @QueryValue(defaultValue = "0") long minGames) {
+        return ranked(service.getTopPlayers(season, stat, limit(limit), minGames));
+    }
+
+    @Get(uri = "/teams/top", produces = MediaType.APPLICATION_JSON_STREAM)
+    public Mono<MutableHttpResponse<Flux<ByteBuf>>> getTopTeams(
+        String season,
+        @QueryValue(defaultValue = "avgPoints") String stat,
+        @QueryValue(defaultValue = "10") int limit,
+        @QueryValue(defaultValue = "0") long minGames) {
+        return ranked(service.getTopTeams(season, stat, limit(limit), minGames));
+    }
+
+    /**
+     * Teams of a season averaged per game rather than per player line, over the games closed so far.
+     */
+    @Get(uri = "/teams/games", produces = MediaType.APPLICATION_JSON_STREAM)
+    public Mono<MutableHttpResponse<Flux<ByteBuf>>> getTeamGameStatistics(String season) {
+        return ranked(service.getTeamGameStatistics(season));
+    }
+
+    /**
+     * One player of a season, read on the owner of the season. {@code 404} if the player has not played in it.
+     */
+    @Get(uri = "/players/{name}", produces = MediaType.APPLICATION_JSON)
+    public Mono<PlayerStatistics> getPlayer(String name, @QueryValue String season) {
+        return service.getPlayerStatistics(season, name);
+    }
+
+    /**
+     * Quantiles of every stat over the games of one player, from the sketch kept with its statistics. {@code 409} if
+     * the sketch does not cover all games of the season, e.g. for rows stored before sketches until a rebuild.
+     */
+    @Get(uri = "/players/{name}/quantiles", produces = MediaType.APPLICATION_JSON)
+    public Mono<PlayerQuantiles> getPlayerQuantiles(String name,
+                                                    @QueryValue String season,
+                                                    @QueryValue(defaultValue = "0.5,0.9") String q) {
+        return service.getPlayerQuantiles(season, name, q)
+            .onErrorMap(IllegalArgumentException.class,
+                e -> new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+            .onErrorMap(IllegalStateException.class,
+                e -> new HttpStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    @Get(uri = "/teams/{name}", produces = MediaType.APPLICATION_JSON)
+    public Mono<TeamStatistics> getTeam(String name, @QueryValue String season) {
+        return service.getTeamStatistics(season, name);
+    }
+
+    /**
+     * Career of one player over all seasons with a breakdown by season, read from the career map in one call.
+     * {@code 404} if the player has never played.
+     */
+    @Get(uri = "/players/{name}/career", produces = MediaType.APPLICATION_JSON)
+    public Mono<CareerStatistics<PlayerStatistics>> getPlayerCareer(String name) {
+        return service.getPlayerCareer(name);
+    }
+
+    /**
+     * History of one team over all seasons, see {@link #getPlayerCareer}.
+     */
+    @Get(uri = "/teams/{name}/career", produces = MediaType.APPLICATION_JSON)
+    public Mono<CareerStatistics<TeamStatistics>> getTeamCareer(String name) {
+        return service.getTeamCareer(name);
+    }
+
+    private Mono<MutableHttpResponse<Flux<ByteBuf>>> ranked(Mono<? extends List<? extends StatisticsResponse>> top) {
+        return top.map(lines -> HttpResponse.ok(encoder.encode(lines)))
+            .onErrorMap(IllegalArgumentException.class,
+                e -> new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    private Mono<MutableHttpResponse<Flux<ByteBuf>>> paged(Mono<? extends StatisticsPage<?>> page) {
+        return page.map(result -> {
+                var response = HttpResponse.ok(encoder.encode(result.lines()));
+                return result.next() == null ? response : response.header(NEXT_CURSOR, result.next());
+            })
+            .onErrorMap(IllegalArgumentException.class,
+                e -> new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    private static int pageLimit(@Nullable Integer limit) {
+        return limit == null ? DEFAULT_PAGE_LIMIT : limit(limit);
+    }
+
+    private static int limit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private int window(int window) {
+        var capacity = windowConfiguration.size();
+        if (window < 1 || window > capacity) {
+            throw new HttpStatusException(HttpStatus.BAD_REQUEST, "Window must be between 1 and " + capacity);
+        }
+        return window;
+    }
+
+    /**
+     * The {@code ETag}, the cached response and its lines all come from the one season read, a missing season is an
+     * empty listing.
+     */
+    private Mono<MutableHttpResponse<Flux<ByteBuf>>> respond(
+        String kind,
+        String season,
+        @Nullable String ifNoneMatch,
+        Mono<SeasonStatistics> read,
+        Function<SeasonStatistics, List<? extends StatisticsResponse>> lines) {
+        return read
+            .map(statistics -> {
+                var version = new SeasonVersion(statistics.epoch, statistics.version);
+                var etag = etag(version);
+                if (matches(ifNoneMatch, etag)) {
+                    return HttpResponse.<Flux<ByteBuf>>notModified().header(HttpHeaders.ETAG, etag);
+                }
+                return HttpResponse.ok(cache.get(kind, season, version,
+                        () -> Mono.fromCallable(() -> lines.apply(statistics))))
+                    .header(HttpHeaders.ETAG, etag);
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> HttpResponse.ok(encoder.encode(List.of()))));
+    }
+
+    static String etag(SeasonVersion version) {
+        return "\"" + Long.toHexString(version.epoch()) + "." + version.version() + "\"";
     }
 
-    private <T extends StatisticsResponse> String convertToJsonWithNewline(T playerStatistics) throws Exception {
-        return objectMapper.writeValueAsString(playerStatistics) + "\n";
+    /**
+     * Weak comparison of RFC 9110: {@code W/} prefixes are ignored, {@code *} matches any version.
+     */
+    static boolean matches(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,10 @@
+package dev.lapysh.stats.model;
+
+import java.util.Map;
+
+/**
+ * Statistics of one player (team) over all seasons it played in: {@code total} over its {@code games} lines and
+ * {@code seasons} by season name, in season order.
+ */
+public record CareerStatistics<T extends StatisticsResponse>(String name, long games, T total, Map<String, T> seasons) {
+}
@@ -0,0 +1,13 @@
+package dev.lapysh.stats.model;
+
+import java.util.Map;
+
+/**
+ * Quantiles of the games of one player in a season: {@code quantiles.get("points").get("0.9")} is the 90th
+ * percentile of points, within {@code relativeAccuracy} of the game at that rank.
+ */
+public record PlayerQuantiles(String playerName,
+                              long games,
+                              double relativeAccuracy,
+                              Map<String, Map<String, Double>> quantiles) {
+}
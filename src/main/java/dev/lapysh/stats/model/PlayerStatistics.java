@@ -1,8 +1,10 @@
 package dev.lapysh.stats.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record PlayerStatistics(
     String playerName,
     double avgPoints,
@@ -12,7 +14,15 @@ public record PlayerStatistics(
     double avgBlocks,
     double avgFouls,
     double avgTurnovers,
-    double avgMinutesPlayed
+    double avgMinutesPlayed,
+    StatValues points,
+    StatValues rebounds,
+    StatValues assists,
+    StatValues steals,
+    StatValues blocks,
+    StatValues fouls,
+    StatValues turnovers,
+    StatValues minutesPlayed
 ) implements StatisticsResponse {
     @JsonCreator
     public PlayerStatistics(@JsonProperty("playerName") String playerName,
@@ -23,7 +33,15 @@ public record PlayerStatistics(
                             @JsonProperty("avgBlocks") double avgBlocks,
                             @JsonProperty("avgFouls") double avgFouls,
                             @JsonProperty("avgTurnovers") double avgTurnovers,
-                            @JsonProperty("avgMinutesPlayed") double avgMinutesPlayed) {
+                            @JsonProperty("avgMinutesPlayed") double avgMinutesPlayed,
+                            @JsonProperty("points") StatValues points,
+                            @JsonProperty("rebounds") StatValues rebounds,
+                            @JsonProperty("assists") StatValues assists,
+                            @JsonProperty("steals") StatValues steals,
+                            @JsonProperty("blocks") StatValues blocks,
+                            @JsonProperty("fouls") StatValues fouls,
+                            @JsonProperty("turnovers") StatValues turnovers,
+                            @JsonProperty("minutesPlayed") StatValues minutesPlayed) {
         this.playerName = playerName;
         this.avgPoints = avgPoints;
         this.avgRebounds = avgRebounds;
@@ -33,5 +51,30 @@ public record PlayerStatistics(
         this.avgFouls = avgFouls;
         this.avgTurnovers = avgTurnovers;
         this.avgMinutesPlayed = avgMinutesPlayed;
+        this.points = points;
+        this.rebounds = rebounds;
+        this.assists = assists;
+        this.steals = steals;
+        this.blocks = blocks;
+        this.fouls = fouls;
+        this.turnovers = turnovers;
+        this.minutesPlayed = minutesPlayed;
+    }
+
+    /**
+     * Averages only, without the spread of the stats.
+     */
+    public PlayerStatistics(String playerName,
+                            double avgPoints,
+                            double avgRebounds,
+                            double avgAssists,
+                            double avgSteals,
+                            double avgBlocks,
+                            double avgFouls,
+                            double avgTurnovers,
+                            double avgMinutesPlayed) {
+        this(playerName, avgPoints, avgRebounds, avgAssists,
+            avgSteals, avgBlocks, avgFouls, avgTurnovers, avgMinutesPlayed,
+            null, null, null, null, null, null, null, null);
     }
 }
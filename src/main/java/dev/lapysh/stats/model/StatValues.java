@@ -0,0 +1,18 @@
+package dev.lapysh.stats.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Spread of one stat over the games of a season: population standard deviation, lowest and highest game.
+ */
+public record StatValues(double stdDev, double min, double max) {
+    @JsonCreator
+    public StatValues(@JsonProperty("stdDev") double stdDev,
+                      @JsonProperty("min") double min,
+                      @JsonProperty("max") double max) {
+        this.stdDev = stdDev;
+        this.min = min;
+        this.max = max;
+    }
+}
@@ -0,0 +1,9 @@
+package dev.lapysh.stats.model;
+
+import java.util.List;
+
+/**
+ * One page of a season listing, {@code next} is the cursor of the following page or {@code null} if there is none.
+ */
+public record StatisticsPage<T extends StatisticsResponse>(List<T> lines, String next) {
+}
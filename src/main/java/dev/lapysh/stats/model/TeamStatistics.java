@@ -3,8 +3,10 @@
 package dev.lapysh.stats.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record TeamStatistics(
     String teamName,
     double avgPoints,
@@ -14,7 +16,15 @@ public record TeamStatistics(
     double avgBlocks,
     double avgFouls,
     double avgTurnovers,
-    double avgMinutesPlayed
+    double avgMinutesPlayed,
+    StatValues points,
+    StatValues rebounds,
+    StatValues assists,
+    StatValues steals,
+    StatValues blocks,
+    StatValues fouls,
+    StatValues turnovers,
+    StatValues minutesPlayed
 ) implements StatisticsResponse {
     @JsonCreator
     public TeamStatistics(@JsonProperty("teamName") String teamName,
@@ -25,7 +35,15 @@ public record TeamStatistics(
                           @JsonProperty("avgBlocks") double avgBlocks,
                           @JsonProperty("avgFouls") double avgFouls,
                           @JsonProperty("avgTurnovers") double avgTurnovers,
-                          @JsonProperty("avgMinutesPlayed") double avgMinutesPlayed) {
+                          @JsonProperty("avgMinutesPlayed") double avgMinutesPlayed,
+                          @JsonProperty("points") StatValues points,
+                          @JsonProperty("rebounds") StatValues rebounds,
+                          @JsonProperty("assists") StatValues assists,
+                          @JsonProperty("steals") StatValues steals,
+                          @JsonProperty("blocks") StatValues blocks,
+                          @JsonProperty("fouls") StatValues fouls,
+                          @JsonProperty("turnovers") StatValues turnovers,
+                          @JsonProperty("minutesPlayed") StatValues minutesPlayed) {
         this.teamName = teamName;
         this.avgPoints = avgPoints;
         this.avgRebounds = avgRebounds;
@@ -35,5 +53,30 @@ public record TeamStatistics(
         this.avgFouls = avgFouls;
         this.avgTurnovers = avgTurnovers;
         this.avgMinutesPlayed = avgMinutesPlayed;
+        this.points = points;
+        this.rebounds = rebounds;
+        this.assists = assists;
+        this.steals = steals;
+        this.blocks = blocks;
+        this.fouls = fouls;
+        this.turnovers = turnovers;
+        this.minutesPlayed = minutesPlayed;
+    }
+
+    /**
+     * Averages only, without the spread of the stats.
+     */
+    public TeamStatistics(String teamName,
+                          double avgPoints,
+                          double avgRebounds,
+                          double avgAssists,
+                          double avgSteals,
+                          double avgBlocks,
+                          double avgFouls,
+                          double avgTurnovers,
+                          double avgMinutesPlayed) {
+        this(teamName, avgPoints, avgRebounds, avgAssists,
+            avgSteals, avgBlocks, avgFouls, avgTurnovers, avgMinutesPlayed,
+            null, null, null, null, null, null, null, null);
     }
 }
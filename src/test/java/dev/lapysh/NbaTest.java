@@ -1,12 +1,45 @@
 package dev.lapysh;
 
+import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
+import dev.lapysh.cfg.CoalescingConfiguration;
+import dev.lapysh.cfg.HazelcastFactory;
+import dev.lapysh.cfg.NearCacheConfiguration;
+import dev.lapysh.cfg.SnapshotConfiguration;
+import dev.lapysh.cfg.WriterConfiguration;
+import dev.lapysh.core.IngestionCoalescer;
+import dev.lapysh.core.IngestionDeduplicator;
+import dev.lapysh.core.PlayerService;
+import dev.lapysh.core.MapEntryProcessor;
+import dev.lapysh.core.model.LineValues;
+import dev.lapysh.core.model.QuantileSketch;
+import dev.lapysh.core.model.RecentGames;
+import dev.lapysh.core.model.SeasonDelta;
+import dev.lapysh.core.model.SeasonStatistics;
+import dev.lapysh.core.model.Statistics;
+import dev.lapysh.core.model.TeamGames;
+import dev.lapysh.core.storage.CareerStorage;
+import dev.lapysh.core.storage.StatisticsStorage;
 import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.in.repository.PlayersDataCopier;
+import dev.lapysh.in.repository.PlayersDataRepository;
+import dev.lapysh.in.repository.PlayersDataWriter;
+import dev.lapysh.infra.metrics.StageMetrics;
+import dev.lapysh.init.PlayerStatisticsMapStore;
+import dev.lapysh.init.SeasonStatisticsMapStore;
+import dev.lapysh.init.SnapshotWriter;
 import dev.lapysh.stats.model.PlayerStatistics;
 import dev.lapysh.stats.model.TeamStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import io.micronaut.test.support.TestPropertyProvider;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import jakarta.inject.Inject;
 import org.apache.commons.io.IOUtils;
@@ -21,21 +54,47 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static dev.lapysh.cfg.WriterConfiguration.Durability.ACK_AFTER_FLUSH;
+import static dev.lapysh.cfg.WriterConfiguration.Durability.ACK_ON_ENQUEUE;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.jooq.impl.DSL.field;
 import static org.jooq.impl.DSL.table;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @MicronautTest
 @Testcontainers
@@ -55,6 +114,30 @@ public class NbaTest implements TestPropertyProvider {
     @Inject
     HazelcastInstance hazelcastInstance;
 
+    @Inject
+    IngestionDeduplicator deduplicator;
+
+    @Inject
+    StatisticsStorage statisticsStorage;
+
+    @Inject
+    CareerStorage careerStorage;
+
+    @Inject
+    IngestionCoalescer coalescer;
+
+    @Inject
+    PlayersDataRepository playersDataRepository;
+
+    @Inject
+    PlayersDataCopier copier;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    SnapshotConfiguration snapshotConfiguration;
+
     ObjectMapper objectMapper = new ObjectMapper();
     private final Random random = new Random();
 
@@ -70,7 +153,8 @@ public class NbaTest implements TestPropertyProvider {
             "r2dbc.datasources.r2dbc.url", postgres.getJdbcUrl(),
             "r2dbc.datasources.r2dbc.port", String.valueOf(postgres.getFirstMappedPort()),
             "r2dbc.datasources.r2dbc.username", postgres.getUsername(),
-            "r2dbc.datasources.r2dbc.password", postgres.getPassword()
+            "r2dbc.datasources.r2dbc.password", postgres.getPassword(),
+            "endpoints.rebuild.sensitive", "false"
         );
     }
 
@@ -80,7 +164,11 @@ public class NbaTest implements TestPropertyProvider {
             .thenMany(Flux.from(dslContext.query("TRUNCATE statistics_players CASCADE")))
             .thenMany(Mono.fromRunnable(() -> hazelcastInstance.getMap("playerDataMap").clear()))
             .thenMany(Flux.from(dslContext.query("TRUNCATE statistics_teams CASCADE")))
+            .thenMany(Flux.from(dslContext.query("TRUNCATE team_games")))
             .thenMany(Mono.fromRunnable(() -> hazelcastInstance.getMap("teamDataMap").clear()))
+            .thenMany(Mono.fromRunnable(() -> hazelcastInstance.getMap("ingestedLinesMap").clear()))
+            .thenMany(Mono.fromRunnable(() -> hazelcastInstance.getMap("playerCareerMap").clear()))
+            .thenMany(Mono.fromRunnable(() -> hazelcastInstance.getMap("teamCareerMap").clear()))
             .blockLast();
     }
 
@@ -308,12 +396,1146 @@ public class NbaTest implements TestPropertyProvider {
         }
     }
 
+    @Test
+    void testBatchSaveReportsInvalidLinesAndSavesTheRest() {
+        var season = "2020-2021";
+        var playersData = generateRandomPlayerData(season, 5);
+        var invalidLine = generateRandomPlayerData(season, 1).getFirst();
+        invalidLine.setFouls(7);
+        var batch = new ArrayList<>(playersData);
+        batch.add(2, invalidLine);
+
+        given(spec)
+            .contentType("application/json")
+            .body(batch)
+            .when()
+            .post("/save/batch")
+            .then()
+            .log()
+            .all()
+            .statusCode(200)
+            .body("accepted", equalTo(5))
+            .body("errors[0].line", equalTo(2))
+            .body("errors[0].error", equalTo("Fouls must be between 0 and 6"));
+
+        var responseLines = IOUtils.readLines(
+            given(spec)
+                .when()
+                .get("/stats/players?season=" + season)
+                .then()
+                .statusCode(200)
+                .extract()
+                .asInputStream(),
+            StandardCharsets.UTF_8
+        );
+        var expectedStats = calculateExpectedPlayerStatistics(playersData, season);
+        assertEquals(expectedStats.size(), responseLines.size());
+        responseLines.forEach(line -> {
+            try {
+                var stat = objectMapper.readValue(line, PlayerStatistics.class);
+                assertEquals(expectedStats.get(stat.playerName()).avgPoints(), stat.avgPoints(), 0.001);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to parse JSON line: " + line, e);
+            }
+        });
+
+        Awaitility.await()
+            .atMost(30, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertEquals(5, Flux.from(dslContext.selectCount()
+                    .from(table("players_data"))
+                    .where(field("season_name").eq(season)))
+                .map(record -> record.value1())
+                .blockLast()));
+    }
+
+    @Test
+    void testBatchReportsLinesOfSeasonThatCouldNotBeSaved() {
+        var fenced = generateRandomPlayerData("2009-2010", 2);
+        var saved = generateRandomPlayerData("2008-2009", 3);
+        var batch = new ArrayList<>(fenced);
+        batch.addAll(saved);
+
+        deduplicator.fence(List.of("2009-2010"), Duration.ofMinutes(1)).block();
+        try {
+            given(spec)
+                .contentType("application/json")
+                .body(batch)
+                .when()
+                .post("/save/batch")
+                .then()
+                .log()
+                .all()
+                .statusCode(200)
+                .body("accepted", equalTo(3))
+                .body("errors.line", equalTo(List.of(0, 1)))
+                .body("errors.retry", equalTo(List.of(true, true)));
+
+            given(spec)
+                .contentType("application/json")
+                .body(fenced)
+                .when()
+                .post("/save/batch")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", notNullValue());
+        } finally {
+            deduplicator.unfence(List.of("2009-2010")).block();
+        }
+
+        given(spec)
+            .contentType("application/json")
+            .body(fenced)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(2));
+    }
+
+    @Test
+    void testDuplicateLinesAreRejected() {
+        var season = "2021-2022";
+        var line = generateRandomPlayerData(season, 1).getFirst();
+
+        given(spec)
+            .contentType("application/json")
+            .body(line)
+            .when()
+            .post("/save")
+            .then()
+            .statusCode(200);
+
+        given(spec)
+            .contentType("application/json")
+            .body(line)
+            .when()
+            .post("/save")
+            .then()
+            .log()
+            .all()
+            .statusCode(409);
+
+        var newLine = generateRandomPlayerData(season, 1).getFirst();
+        given(spec)
+            .contentType("application/json")
+            .body(List.of(line, newLine, newLine))
+            .when()
+            .post("/save/batch")
+            .then()
+            .log()
+            .all()
+            .statusCode(200)
+            .body("accepted", equalTo(1))
+            .body("errors[0].line", equalTo(0))
+            .body("errors[0].error", equalTo("Duplicate line"))
+            .body("errors[1].line", equalTo(2))
+            .body("errors[1].error", equalTo("Duplicate line"));
+
+        Awaitility.await()
+            .atMost(30, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertEquals(2, Flux.from(dslContext.selectCount()
+                    .from(table("players_data"))
+                    .where(field("season_name").eq(season)))
+                .map(record -> record.value1())
+                .blockLast()));
+    }
+
+    @Test
+    void testStatsAnswerNotModifiedForCurrentETag() {
+        var season = "2022-2023";
+        given(spec)
+            .contentType("application/json")
+            .body(generateRandomPlayerData(season, 3))
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200);
+
+        var etag = given(spec)
+            .when()
+            .get("/stats/players?season=" + season)
+            .then()
+            .statusCode(200)
+            .extract()
+            .header("ETag");
+        assertNotNull(etag);
+
+        given(spec)
+            .header("If-None-Match", etag)
+            .when()
+            .get("/stats/players?season=" + season)
+            .then()
+            .statusCode(304);
+
+        given(spec)
+            .contentType("application/json")
+            .body(generateRandomPlayerData(season, 1))
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200);
+
+        given(spec)
+            .header("If-None-Match", etag)
+            .when()
+            .get("/stats/players?season=" + season)
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)));
+    }
+
+    @Test
+    void testTopPlayersByAverage() {
+        var season = "2019-2020";
+        var playersData = generateRandomPlayerData(season, 6);
+        for (int i = 0; i < playersData.size(); i++) {
+            playersData.get(i).setPoints(10 + 5 * i);
+        }
+        var secondGame = generateRandomPlayerData(season, 1).getFirst();
+        secondGame.setPoints(0);
+        playersData.add(secondGame);
+
+        given(spec)
+            .contentType("application/json")
+            .body(playersData)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(7));
+
+        var top = IOUtils.readLines(
+                given(spec)
+                    .when()
+                    .get("/stats/players/top?season=" + season + "&stat=avgPoints&limit=3")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .asInputStream(),
+                StandardCharsets.UTF_8
+            ).stream()
+            .map(line -> {
+                try {
+                    return objectMapper.readValue(line, PlayerStatistics.class).playerName();
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to parse JSON line: " + line, e);
+                }
+            })
+            .toList();
+        assertEquals(List.of("Player5", "Player4", "Player3"), top);
+
+        given(spec)
+            .when()
+            .get("/stats/players/top?season=" + season + "&stat=avgPoints&minGames=2")
+            .then()
+            .statusCode(200)
+            .body(containsString("\"playerName\":\"Player0\""))
+            .body(not(containsString("Player5")));
+
+        given(spec)
+            .when()
+            .get("/stats/players/top?season=" + season + "&stat=points")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testSinglePlayerLookup() {
+        var season = "2018-2019";
+        var playersData = generateRandomPlayerData(season, 3);
+        given(spec)
+            .contentType("application/json")
+            .body(playersData)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200);
+
+        var expected = calculateExpectedPlayerStatistics(playersData, season).get("Player1");
+        given(spec)
+            .when()
+            .get("/stats/players/Player1?season=" + season)
+            .then()
+            .statusCode(200)
+            .body("playerName", equalTo("Player1"))
+            .body("avgPoints", equalTo((float) expected.avgPoints()));
+
+        given(spec)
+            .when()
+            .get("/stats/players/Nobody?season=" + season)
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void testPagedPlayerListing() {
+        var season = "2017-2018";
+        var playersData = generateRandomPlayerData(season, 7);
+        for (int i = 0; i < playersData.size(); i++) {
+            playersData.get(i).setPoints(10 + 5 * i);
+        }
+        given(spec)
+            .contentType("application/json")
+            .body(playersData)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(7));
+
+        var names = new ArrayList<String>();
+        String cursor = null;
+        do {
+            var page = given(spec)
+                .when()
+                .get("/stats/players?season=" + season + "&sort=avgPoints&limit=3"
+                    + (cursor == null ? "" : "&after=" + cursor))
+                .then()
+                .statusCode(200)
+                .extract();
+            names.addAll(readPlayerNames(page.asString()));
+            cursor = page.header("X-Next-Cursor");
+        } while (cursor != null);
+        assertEquals(List.of("Player6", "Player5", "Player4", "Player3", "Player2", "Player1", "Player0"), names);
+
+        var team = given(spec)
+            .when()
+            .get("/stats/players?season=" + season + "&team=Team0")
+            .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", nullValue())
+            .extract()
+            .asString();
+        assertEquals(List.of("Player0", "Player3", "Player6"), readPlayerNames(team));
+
+        given(spec)
+            .when()
+            .get("/stats/players?season=" + season + "&sort=avgPoints&after=garbage")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testStatisticsSpread() {
+        var season = "2016-2017";
+        var firstGame = generateRandomPlayerData(season, 1).getFirst();
+        firstGame.setPoints(10);
+        var secondGame = generateRandomPlayerData(season, 1).getFirst();
+        secondGame.setPoints(20);
+        given(spec)
+            .contentType("application/json")
+            .body(List.of(firstGame, secondGame))
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(2));
+
+        given(spec)
+            .when()
+            .get("/stats/players/Player0?season=" + season)
+            .then()
+            .statusCode(200)
+            .body("avgPoints", equalTo(15.0f))
+            .body("points.stdDev", equalTo(5.0f))
+            .body("points.min", equalTo(10.0f))
+            .body("points.max", equalTo(20.0f));
+    }
+
+    @Test
+    void testPlayerQuantiles() {
+        var season = "2015-2016";
+        var games = new ArrayList<PlayerGameData>();
+        for (int points = 10; points <= 50; points += 10) {
+            var game = generateRandomPlayerData(season, 1).getFirst();
+            game.setPoints(points);
+            games.add(game);
+        }
+        given(spec)
+            .contentType("application/json")
+            .body(games)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(5));
+
+        var quantiles = given(spec)
+            .when()
+            .get("/stats/players/Player0/quantiles?season=" + season + "&q=0.5,1")
+            .then()
+            .statusCode(200)
+            .body("games", equalTo(5))
+            .extract()
+            .jsonPath();
+        assertEquals(30, quantiles.getDouble("quantiles.points.'0.5'"), 30 * 0.02);
+        assertEquals(50, quantiles.getDouble("quantiles.points.'1.0'"), 50 * 0.02);
+
+        given(spec)
+            .when()
+            .get("/stats/players/Player0/quantiles?season=" + season + "&q=2")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testRecentGamesWindow() throws Exception {
+        var season = "2014-2015";
+        for (int points = 1; points <= 12; points++) {
+            var game = generateRandomPlayerData(season, 1).getFirst();
+            game.setPoints(points);
+            given(spec)
+                .contentType("application/json")
+                .body(game)
+                .when()
+                .post("/save")
+                .then()
+                .statusCode(200);
+        }
+
+        assertEquals(11.0, averagePoints("/stats/players?season=" + season + "&window=3"));
+        assertEquals(7.5, averagePoints("/stats/players?season=" + season + "&window=10"));
+        assertEquals(6.5, averagePoints("/stats/players?season=" + season));
+
+        given(spec)
+            .when()
+            .get("/stats/players?season=" + season + "&window=11")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void testTeamTotalsPerGame() throws Exception {
+        var season = "2013-2014";
+        var gameId = UUID.randomUUID();
+        // Player0 and Player3 play for Team0, Player1 for Team1 and Player2 for Team2
+        var lines = generateRandomPlayerData(season, 4);
+        lines.forEach(line -> {
+            line.setGameId(gameId);
+            line.setPoints(10);
+        });
+        given(spec)
+            .contentType("application/json")
+            .body(lines)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(4));
+
+        var beforeClose = given(spec)
+            .when()
+            .get("/stats/teams/games?season=" + season)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+        assertTrue(beforeClose.isBlank());
+
+        given(spec)
+            .when()
+            .post("/games/" + gameId + "/close?season=" + season)
+            .then()
+            .statusCode(204);
+        given(spec)
+            .when()
+            .post("/games/" + gameId + "/close?season=" + season)
+            .then()
+            .statusCode(404);
+
+        var perGame = given(spec)
+            .when()
+            .get("/stats/teams/games?season=" + season)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString()
+            .lines()
+            .filter(line -> !line.isBlank())
+            .toList();
+        assertEquals(3, perGame.size());
+        var team0 = objectMapper.readValue(perGame.getFirst(), TeamStatistics.class);
+        assertEquals("Team0", team0.teamName());
+        assertEquals(20.0, team0.avgPoints());
+    }
+
+    @Test
+    void testPlayerCareer() {
+        var lines = new ArrayList<PlayerGameData>();
+        for (var season : List.of("2011-2012", "2012-2013")) {
+            var firstGame = generateRandomPlayerData(season, 1).getFirst();
+            firstGame.setPoints(season.equals("2011-2012") ? 10 : 20);
+            var secondGame = generateRandomPlayerData(season, 1).getFirst();
+            secondGame.setPoints(season.equals("2011-2012") ? 10 : 40);
+            lines.add(firstGame);
+            lines.add(secondGame);
+        }
+        given(spec)
+            .contentType("application/json")
+            .body(lines)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(4));
+
+        given(spec)
+            .when()
+            .get("/stats/players/Player0/career")
+            .then()
+            .statusCode(200)
+            .body("name", equalTo("Player0"))
+            .body("games", equalTo(4))
+            .body("total.avgPoints", equalTo(20.0f))
+            .body("total.points.max", equalTo(40.0f))
+            .body("seasons.'2011-2012'.avgPoints", equalTo(10.0f))
+            .body("seasons.'2012-2013'.avgPoints", equalTo(30.0f));
+        given(spec)
+            .when()
+            .get("/stats/teams/Team0/career")
+            .then()
+            .statusCode(200)
+            .body("games", equalTo(4));
+        given(spec)
+            .when()
+            .get("/stats/players/Nobody/career")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void testStatisticsRoundTrip() {
+        var lines = generateRandomPlayerData("2013-2014", 6);
+        var stats = Statistics.player(4);
+        lines.forEach(line -> stats.add(line).addRecent(line));
+
+        var copy = roundTrip(stats);
+        assertEquals(stats.n(), copy.n());
+        assertArrayEquals(stats.values(), copy.values());
+        assertArrayEquals(stats.sketch().toBytes(), copy.sketch().toBytes());
+        assertArrayEquals(stats.recent().toBytes(), copy.recent().toBytes());
+        assertEquals(stats.quantile(Statistics.POINTS, 0.5), copy.quantile(Statistics.POINTS, 0.5));
+        assertArrayEquals(stats.sketch().toBytes(), QuantileSketch.fromBytes(stats.sketch().toBytes()).toBytes());
+        assertArrayEquals(stats.recent().toBytes(), RecentGames.fromBytes(stats.recent().toBytes()).toBytes());
+
+        // Moments merged on the owner plus the values of the lines give the aggregate of folding the lines
+        var moments = new Statistics();
+        var values = new LineValues();
+        lines.forEach(line -> {
+            moments.add(line);
+            values.add(line);
+        });
+        var merged = Statistics.player(4).merge(roundTrip(moments)).addLines(values);
+        assertEquals(stats.n(), merged.n());
+        assertArrayEquals(stats.values(), merged.values());
+        assertArrayEquals(stats.sketch().toBytes(), merged.sketch().toBytes());
+        assertArrayEquals(stats.recent().toBytes(), merged.recent().toBytes());
+    }
+
+    @Test
+    void testMapEntryProcessorRoundTrip() {
+        var lines = new ArrayList<>(generateRandomPlayerData("2013-2014", 4));
+        lines.addAll(generateRandomPlayerData("2013-2014", 2));
+        var delta = SeasonDelta.of(lines);
+
+        var players = MapEntryProcessor.players("playerDataMap", delta.players(), delta.playerLines(),
+            delta.playerTeams(), 4);
+        var copy = roundTrip(players);
+        assertArrayEquals(players.names, copy.names);
+        assertArrayEquals(players.teams, copy.teams);
+        assertEquals(4, copy.windowCapacity);
+        for (int i = 0; i < players.names.length; i++) {
+            var sent = players.lines[i];
+            assertEquals(sent.size(), copy.lines[i].size());
+            assertArrayEquals(Arrays.copyOf(sent.values(), sent.size() * Statistics.STATS), copy.lines[i].values());
+            assertEquals(players.deltas[i].n(), copy.deltas[i].n());
+            assertArrayEquals(players.deltas[i].values(), copy.deltas[i].values());
+        }
+        assertEquals(2, copy.lines[Arrays.asList(copy.names).indexOf("Player0")].size());
+
+        var teams = MapEntryProcessor.teams("teamDataMap", delta.teams(), Map.of(), delta.games().values(), 10);
+        assertNull(roundTrip(teams).lines);
+
+        // Keeping 3 of the 6 games open closes the others into the totals
+        var games = new TeamGames();
+        games.add(delta.games().values(), System.currentTimeMillis(), 3);
+        var gamesCopy = TeamGames.fromBytes(games.toBytes());
+        assertEquals(3, gamesCopy.open.size());
+        assertEquals(games.closed, gamesCopy.closed);
+        games.open.forEach((key, game) -> {
+            assertArrayEquals(game.totals, gamesCopy.open.get(key).totals);
+            assertEquals(game.lastLineAt, gamesCopy.open.get(key).lastLineAt);
+        });
+        assertEquals(games.totals.keySet(), gamesCopy.totals.keySet());
+        games.totals.forEach((team, totals) -> {
+            assertEquals(totals.n(), gamesCopy.totals.get(team).n());
+            assertArrayEquals(totals.values(), gamesCopy.totals.get(team).values());
+        });
+    }
+
+    @Test
+    void testStageMetrics() {
+        var season = "2010-2011";
+        given(spec)
+            .contentType("application/json")
+            .body(generateRandomPlayerData(season, 1).getFirst())
+            .when()
+            .post("/save")
+            .then()
+            .statusCode(200);
+        given(spec)
+            .when()
+            .get("/stats/players?season=" + season)
+            .then()
+            .statusCode(200);
+
+        given(spec)
+            .when()
+            .get("/prometheus")
+            .then()
+            .statusCode(200)
+            .body(containsString("nba_validation_seconds_bucket"))
+            .body(containsString("nba_map_submit_seconds_count{map=\"playerDataMap\",outcome=\"success\"}"))
+            .body(containsString("nba_stats_encode_seconds_count"));
+    }
+
+    @Test
+    void testLinesAreCoalescedIntoOneSeasonUpdate() {
+        var season = "2014-2015";
+        var lines = generateRandomPlayerData(season, 10);
+        lines.forEach(line -> line.setPoints(10));
+        // No tick within the test, the buffer reaching 10 lines triggers the flush
+        var registry = new SimpleMeterRegistry();
+        var buffered = new IngestionCoalescer(statisticsStorage, careerStorage,
+            new CoalescingConfiguration(true, Duration.ofHours(1), lines.size(), false), new StageMetrics(registry));
+
+        Mono.when(lines.stream().map(line -> buffered.apply(season, List.of(line))).toList()).block();
+
+        assertEquals(10.0, registry.get("nba.coalescing.lines").functionCounter().count());
+        assertEquals(1.0, registry.get("nba.coalescing.flushes").functionCounter().count());
+        assertEquals(1.0, registry.get("nba.coalescing.season.updates").functionCounter().count());
+        assertEquals(10.0, registry.get("nba.coalescing.ratio").gauge().value());
+        var players = given(spec)
+            .when()
+            .get("/stats/players?season=" + season)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+        assertEquals(lines.stream().map(PlayerGameData::getPlayerName).sorted().toList(), readPlayerNames(players));
+        assertTrue(players.lines().allMatch(line -> line.contains("\"avgPoints\":10.0")));
+    }
+
+    @Test
+    void testWriterBufferIsBoundedUntilRowsAreWritten() {
+        var repository = mock(PlayersDataRepository.class);
+        var written = Sinks.<List<PlayerGameData>>one();
+        when(repository.saveAll(anyList())).thenReturn(written.asMono()).thenReturn(Mono.just(List.of()));
+        var writer = writer(repository, 1, ACK_AFTER_FLUSH);
+        var lines = generateRandomPlayerData("2015-2016", 2);
+
+        var first = writer.enqueue(List.of(lines.get(0))).block();
+        verify(repository, timeout(10_000)).saveAll(anyList());
+        assertThrows(PlayersDataWriter.BufferFullException.class, () -> writer.enqueue(List.of(lines.get(1))).block());
+        assertNotNull(first);
+
+        written.tryEmitValue(List.of());
+        first.block(Duration.ofSeconds(10));
+        // The rows of the first flush are released right after its callers complete
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).ignoreExceptions()
+            .until(() -> writer.enqueue(List.of(lines.get(1))).block() != null);
+    }
+
+    @Test
+    void testAckOnEnqueueRetriesFailedInsert() {
+        var repository = mock(PlayersDataRepository.class);
+        when(repository.saveAll(anyList()))
+            .thenReturn(Mono.error(new IllegalStateException("Database is down")))
+            .thenReturn(Mono.just(List.of()));
+        var writer = writer(repository, 10, ACK_ON_ENQUEUE);
+
+        var written = writer.enqueue(generateRandomPlayerData("2015-2016", 1)).block();
+        assertNotNull(written);
+        written.block(Duration.ofSeconds(10));
+        verify(repository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testAckOnEnqueueKeepsKeysReservedUntilRowsAreWritten() {
+        var season = "2015-2016";
+        var repository = mock(PlayersDataRepository.class);
+        var written = Sinks.<List<PlayerGameData>>one();
+        when(repository.saveAll(anyList())).thenReturn(written.asMono());
+        var service = new PlayerService(writer(repository, 10, ACK_ON_ENQUEUE), statisticsStorage, careerStorage,
+            coalescer, deduplicator, StageMetrics.NOOP);
+        var line = generateRandomPlayerData(season, 1).getFirst();
+
+        try {
+            // Acknowledged and counted before the row is written
+            service.savePlayerData(line).block(Duration.ofSeconds(10));
+            verify(repository, timeout(10_000)).saveAll(anyList());
+            var players = given(spec)
+                .when()
+                .get("/stats/players?season=" + season)
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+            assertEquals(List.of(line.getPlayerName()), readPlayerNames(players));
+
+            // A retry of the client meanwhile must not be counted again
+            assertThrows(IngestionDeduplicator.DuplicateLineException.class,
+                () -> service.savePlayerData(line).block(Duration.ofSeconds(10)));
+        } finally {
+            written.tryEmitValue(List.of());
+        }
+    }
+
+    @Test
+    void testCopyIsRejectedWhileFirstIsWritten() throws Exception {
+        var season = "2012-2013";
+        var repository = mock(PlayersDataRepository.class);
+        var written = Sinks.<List<PlayerGameData>>one();
+        when(repository.saveAll(anyList())).thenReturn(written.asMono());
+        var service = new PlayerService(writer(repository, 10, ACK_AFTER_FLUSH), statisticsStorage, careerStorage,
+            coalescer, deduplicator, StageMetrics.NOOP);
+        var line = generateRandomPlayerData(season, 1).getFirst();
+        line.setPoints(20);
+
+        var first = service.savePlayerData(line).toFuture();
+        verify(repository, timeout(10_000)).saveAll(anyList());
+        assertThrows(IngestionDeduplicator.DuplicateLineException.class,
+            () -> service.savePlayerData(line).block(Duration.ofSeconds(10)));
+        written.tryEmitValue(List.of());
+        first.join();
+
+        verify(repository, times(1)).saveAll(anyList());
+        assertEquals(20.0, averagePoints("/stats/players?season=" + season));
+    }
+
+    @Test
+    void testLineIsAcceptedAgainAfterFailedWrite() throws Exception {
+        var season = "2012-2013";
+        var repository = mock(PlayersDataRepository.class);
+        when(repository.saveAll(anyList()))
+            .thenReturn(Mono.error(new IllegalStateException("Database is down")))
+            .thenReturn(Mono.just(List.of()));
+        var service = new PlayerService(writer(repository, 10, ACK_AFTER_FLUSH), statisticsStorage, careerStorage,
+            coalescer, deduplicator, StageMetrics.NOOP);
+        var line = generateRandomPlayerData(season, 1).getFirst();
+        line.setPoints(20);
+
+        assertThrows(IllegalStateException.class, () -> service.savePlayerData(line).block(Duration.ofSeconds(10)));
+        service.savePlayerData(line).block(Duration.ofSeconds(10));
+
+        verify(repository, times(2)).saveAll(anyList());
+        assertEquals(20.0, averagePoints("/stats/players?season=" + season));
+    }
+
+    @Test
+    void testLineAlreadyStoredIsNotCounted() throws Exception {
+        var season = "2012-2013";
+        var lines = generateRandomPlayerData(season, 2);
+        lines.get(0).setPoints(10);
+        lines.get(1).setPoints(30);
+        var service = new PlayerService(writer(playersDataRepository, 10, ACK_AFTER_FLUSH), statisticsStorage,
+            careerStorage, coalescer, deduplicator, StageMetrics.NOOP);
+        service.savePlayerData(lines.get(0)).block(Duration.ofSeconds(10));
+
+        // Stored behind the back of the season's filter, as by a member with deduplication disabled
+        assertEquals(List.of(), playersDataRepository.saveAll(List.of(lines.get(1))).block());
+        assertEquals(List.of(lines.get(1)), playersDataRepository.saveAll(List.of(lines.get(1))).block());
+        service.savePlayerData(lines.get(1)).block(Duration.ofSeconds(10));
+
+        assertEquals(2, countLines(season));
+        assertEquals(10.0, averagePoints("/stats/players?season=" + season));
+    }
+
+    @Test
+    void testLargeFlushIsCopiedOrFallsBackToInsert() {
+        var season = "2016-2017";
+        // Flushes of 3 lines, all of them copied
+        var config = new WriterConfiguration(Duration.ofHours(1), 3, 10, 4, 2, ACK_AFTER_FLUSH);
+        new PlayersDataWriter(playersDataRepository, copier, config)
+            .enqueue(generateRandomPlayerData(season, 3))
+            .flatMap(written -> written)
+            .block(Duration.ofSeconds(10));
+        assertEquals(3, countLines(season));
+
+        var failingCopier = mock(PlayersDataCopier.class);
+        when(failingCopier.copy(anyList())).thenReturn(Mono.error(new IllegalStateException("COPY failed")));
+        var lines = generateRandomPlayerData(season, 3);
+        new PlayersDataWriter(playersDataRepository, failingCopier, config)
+            .enqueue(lines)
+            .flatMap(written -> written)
+            .block(Duration.ofSeconds(10));
+        verify(failingCopier).copy(lines);
+        assertEquals(6, countLines(season));
+    }
+
+    private int countLines(String season) {
+        return Flux.from(dslContext.selectCount()
+                .from(table("players_data"))
+                .where(field("season_name").eq(season)))
+            .map(record -> record.value1())
+            .blockLast();
+    }
+
+    @Test
+    void testWriteBehindStoresOnlyChangedRows() {
+        var season = "2017-2018";
+        var lines = generateRandomPlayerData(season, 2);
+        lines.forEach(this::save);
+        Awaitility.await().atMost(30, TimeUnit.SECONDS)
+            .until(() -> updatedAt(season, "Player0") != null && updatedAt(season, "Player1") != null);
+        var player0 = updatedAt(season, "Player0");
+        var player1 = updatedAt(season, "Player1");
+
+        save(generateRandomPlayerData(season, 1).getFirst());
+        Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> !updatedAt(season, "Player0").equals(player0));
+
+        assertEquals(player1, updatedAt(season, "Player1"));
+        var games = Mono.from(dslContext.select(field("count_of_rows", Integer.class))
+                .from(table("statistics_players"))
+                .where(field("season_name").eq(season).and(field("player_name").eq("Player0"))))
+            .block();
+        assertNotNull(games);
+        assertEquals(2, games.value1());
+    }
+
+    @Test
+    void testSeasonsAreLoadedFromTheirRows() throws Exception {
+        var seasons = List.of("2018-2019", "2019-2020", "2020-2021");
+        var playersData = generateRandomPlayerDataForSeasons(seasons, 4);
+        given(spec)
+            .contentType("application/json")
+            .body(playersData)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(12));
+        Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> countRows("statistics_players") == 12);
+
+        // Drop the seasons from memory, leaving their rows, and load them again as on a cold start
+        var playerDataMap = hazelcastInstance.getMap("playerDataMap");
+        playerDataMap.evictAll();
+        playerDataMap.loadAll(true);
+
+        Awaitility.await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertEquals(3.0, loadGauge("nba.map.load.expected.keys"));
+            assertEquals(3.0, loadGauge("nba.map.load.keys"));
+            assertEquals(12.0, loadGauge("nba.map.load.rows"));
+        });
+        assertEquals(3, playerDataMap.size());
+        for (var season : seasons) {
+            var expected = calculateExpectedPlayerStatistics(playersData, season);
+            var listing = given(spec)
+                .when()
+                .get("/stats/players?season=" + season)
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+            assertEquals(expected.keySet().stream().sorted().toList(), readPlayerNames(listing));
+            for (var line : listing.strip().split("\n")) {
+                var stats = objectMapper.readValue(line, PlayerStatistics.class);
+                assertEquals(expected.get(stats.playerName()).avgPoints(), stats.avgPoints(), 0.001);
+                assertEquals(expected.get(stats.playerName()).avgRebounds(), stats.avgRebounds(), 0.001);
+            }
+        }
+    }
+
+    @Test
+    void testLoadHydratesFromSnapshotAndReconcilesRecentRows() throws Exception {
+        var season = "2021-2022";
+        var lines = generateRandomPlayerData(season, 2);
+        lines.get(0).setPoints(10);
+        lines.get(1).setPoints(20);
+        lines.forEach(this::save);
+        Awaitility.await().atMost(30, TimeUnit.SECONDS).until(() -> countRows("statistics_players") == 2);
+
+        // Rows updated within the last hour are always read from the database
+        var snapshots = new SnapshotConfiguration(true, Files.createTempDirectory("snapshots"), Duration.ofMinutes(5),
+            Duration.ofHours(1));
+        new SnapshotWriter(hazelcastInstance, snapshots).writeSnapshots();
+        // Behind the watermark: the snapshot wins. After it: the database wins.
+        setPoints(season, "Player1", 99, LocalDateTime.of(2000, 1, 1, 0, 0));
+        setPoints(season, "Player0", 50, LocalDateTime.now());
+
+        var store = new PlayerStatisticsMapStore();
+        SeasonStatisticsMapStore.setSnapshots(snapshots);
+        try {
+            store.init(hazelcastInstance, new Properties(), "playerDataMap");
+            var loaded = store.loadAll(List.of(season)).get(season);
+            assertEquals(2, loaded.entities.size());
+            assertEquals(50.0, loaded.entities.get("Player0").average(Statistics.POINTS));
+            assertEquals(20.0, loaded.entities.get("Player1").average(Statistics.POINTS));
+        } finally {
+            SeasonStatisticsMapStore.setSnapshots(snapshotConfiguration);
+            store.destroy();
+        }
+    }
+
+    @Test
+    void testRebuildCountsLinesMissingFromStatistics() {
+        var season = "2022-2023";
+        var lines = generateRandomPlayerData(season, 2);
+        lines.get(0).setPoints(10);
+        lines.get(1).setPoints(20);
+        lines.forEach(this::save);
+        // Written behind the statistics' back
+        var missing = generateRandomPlayerData(season, 1).getFirst();
+        missing.setPoints(30);
+        playersDataRepository.saveAll(List.of(missing)).block();
+
+        given(spec)
+            .contentType("application/json")
+            .body(Map.of("season", season))
+            .when()
+            .post("/rebuild")
+            .then()
+            .statusCode(200)
+            .body("seasons", equalTo(1))
+            .body("rows", equalTo(3));
+
+        var players = given(spec)
+            .when()
+            .get("/stats/players?season=" + season)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString();
+        assertEquals(List.of("Player0", "Player1"), readPlayerNames(players));
+        assertTrue(players.lines().allMatch(line -> line.contains("\"avgPoints\":20.0")));
+    }
+
+    @Test
+    void testRebuildClosesTeamGames() throws Exception {
+        var season = "2009-2010";
+        var gameId = UUID.randomUUID();
+        // Player0 and Player3 play for Team0, Player1 for Team1 and Player2 for Team2
+        var lines = generateRandomPlayerData(season, 4);
+        lines.forEach(line -> {
+            line.setGameId(gameId);
+            line.setPoints(10);
+        });
+        given(spec)
+            .contentType("application/json")
+            .body(lines)
+            .when()
+            .post("/save/batch")
+            .then()
+            .statusCode(200)
+            .body("accepted", equalTo(4));
+
+        given(spec)
+            .contentType("application/json")
+            .body(Map.of("season", season))
+            .when()
+            .post("/rebuild")
+            .then()
+            .statusCode(200)
+            .body("rows", equalTo(4));
+        // Written in the swap transaction
+        assertEquals(1, countRows("team_games"));
+
+        var perGame = given(spec)
+            .when()
+            .get("/stats/teams/games?season=" + season)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString()
+            .lines()
+            .filter(line -> !line.isBlank())
+            .toList();
+        assertEquals(3, perGame.size());
+        var team0 = objectMapper.readValue(perGame.getFirst(), TeamStatistics.class);
+        assertEquals("Team0", team0.teamName());
+        assertEquals(20.0, team0.avgPoints());
+    }
+
+    @Test
+    void testFencedSeasonRejectsLines() {
+        var line = generateRandomPlayerData("2022-2023", 1).getFirst();
+        deduplicator.fence(List.of("2022-2023"), Duration.ofMinutes(1)).block();
+        try {
+            given(spec)
+                .contentType("application/json")
+                .body(line)
+                .when()
+                .post("/save")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", "5");
+            save(generateRandomPlayerData("2023-2024", 1).getFirst());
+        } finally {
+            deduplicator.unfence(List.of("2022-2023")).block();
+        }
+        save(line);
+    }
+
+    @Test
+    void testListingIsEncodedOncePerSeasonVersion() {
+        var season = "2010-2011";
+        var listing = "/stats/players?season=" + season;
+        var lines = generateRandomPlayerData(season, 2);
+        save(lines.get(0));
+        var encodings = encodings();
+
+        var first = getListing(listing);
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> encodings() == encodings + 1);
+        var second = getListing(listing);
+        assertEquals(first.header("ETag"), second.header("ETag"));
+        assertEquals(first.asString(), second.asString());
+        assertEquals(encodings + 1, encodings());
+
+        given(spec)
+            .header("If-None-Match", first.header("ETag"))
+            .when()
+            .get(listing)
+            .then()
+            .statusCode(304);
+
+        save(lines.get(1));
+        var changed = getListing(listing);
+        assertNotEquals(first.header("ETag"), changed.header("ETag"));
+        assertEquals(2, changed.asString().lines().count());
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> encodings() == encodings + 2);
+    }
+
+    @Test
+    void testNonOwnerReadsSeasonThroughNearCache() {
+        var config = HazelcastFactory.config(new NearCacheConfiguration(true, Duration.ofMinutes(1), 16));
+        // With two members each one holds a backup of the other's seasons: reading the owner instead makes this
+        // member a non-replica, as members beyond the backup count are
+        config.getMapConfig("playerDataMap").setReadBackupData(false);
+        var member = Hazelcast.newHazelcastInstance(config);
+        try {
+            Awaitility.await().atMost(60, TimeUnit.SECONDS)
+                .until(() -> hazelcastInstance.getCluster().getMembers().size() == 2
+                    && hazelcastInstance.getPartitionService().isClusterSafe());
+            var season = IntStream.range(1950, 2000)
+                .mapToObj(year -> year + "-" + (year + 1))
+                .filter(name -> hazelcastInstance.getPartitionService().getPartition(name).getOwner().localMember())
+                .findFirst()
+                .orElseThrow();
+            var lines = generateRandomPlayerData(season, 2);
+            save(lines.get(0));
+
+            IMap<String, SeasonStatistics> players = member.getMap("playerDataMap");
+            assertEquals(Set.of("Player0"), players.get(season).entities.keySet());
+            var hits = players.getLocalMapStats().getNearCacheStats().getHits();
+            assertEquals(Set.of("Player0"), players.get(season).entities.keySet());
+            assertEquals(hits + 1, players.getLocalMapStats().getNearCacheStats().getHits());
+
+            // Invalidated by the merge on the owner
+            save(lines.get(1));
+            Awaitility.await().atMost(10, TimeUnit.SECONDS)
+                .until(() -> players.get(season).entities.keySet().equals(Set.of("Player0", "Player1")));
+        } finally {
+            member.shutdown();
+            Awaitility.await().atMost(60, TimeUnit.SECONDS)
+                .until(() -> hazelcastInstance.getPartitionService().isClusterSafe());
+        }
+    }
+
+    private void setPoints(String season, String playerName, double points, LocalDateTime updatedAt) {
+        Mono.from(dslContext.update(table("statistics_players"))
+                .set(field("avg_points", Double.class), points)
+                .set(field("updated_at", LocalDateTime.class), updatedAt)
+                .where(field("season_name").eq(season).and(field("player_name").eq(playerName))))
+            .block();
+    }
+
+    private double loadGauge(String name) {
+        return meterRegistry.get(name).tag("map", "playerDataMap").gauge().value();
+    }
+
+    private ExtractableResponse<Response> getListing(String path) {
+        return given(spec)
+            .when()
+            .get(path)
+            .then()
+            .statusCode(200)
+            .extract();
+    }
+
+    private long encodings() {
+        return meterRegistry.find("nba.stats.encode").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private int countRows(String tableName) {
+        return Flux.from(dslContext.selectCount().from(table(tableName)))
+            .map(record -> record.value1())
+            .blockLast();
+    }
+
+    private void save(PlayerGameData line) {
+        given(spec)
+            .contentType("application/json")
+            .body(line)
+            .when()
+            .post("/save")
+            .then()
+            .statusCode(200);
+    }
+
+    private LocalDateTime updatedAt(String season, String playerName) {
+        var record = Mono.from(dslContext.select(field("updated_at", LocalDateTime.class))
+                .from(table("statistics_players"))
+                .where(field("season_name").eq(season).and(field("player_name").eq(playerName))))
+            .block();
+        return record == null ? null : record.value1();
+    }
+
+    /**
+     * Writer flushing every line at once, with no tick within a test.
+     */
+    private static PlayersDataWriter writer(PlayersDataRepository repository,
+                                            int maxPending,
+                                            WriterConfiguration.Durability durability) {
+        return new PlayersDataWriter(repository, null,
+            new WriterConfiguration(Duration.ofHours(1), 1, maxPending, 4, 0, durability));
+    }
+
+    private double averagePoints(String listing) throws Exception {
+        var lines = given(spec)
+            .when()
+            .get(listing)
+            .then()
+            .statusCode(200)
+            .extract()
+            .asString()
+            .strip();
+        return objectMapper.readValue(lines, PlayerStatistics.class).avgPoints();
+    }
+
+    private List<String> readPlayerNames(String jsonLines) {
+        return jsonLines.lines()
+            .filter(line -> !line.isBlank())
+            .map(line -> {
+                try {
+                    return objectMapper.readValue(line, PlayerStatistics.class).playerName();
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to parse JSON line: " + line, e);
+                }
+            })
+            .toList();
+    }
+
     private List<PlayerGameData> generateRandomPlayerDataForSeasons(List<String> seasons, int countPerSeason) {
         return seasons.stream()
             .flatMap(season -> generateRandomPlayerData(season, countPerSeason).stream())
             .collect(Collectors.toList());
     }
 
+    private <T> T roundTrip(T object) {
+        var serialization = ((SerializationServiceSupport) hazelcastInstance).getSerializationService();
+        return serialization.toObject(serialization.toData(object));
+    }
+
     private List<PlayerGameData> generateRandomPlayerData(String season, int count) {
         return IntStream.range(0, count)
             .mapToObj(i -> new PlayerGameData(
@@ -0,0 +1,162 @@
+package dev.lapysh;
+
+import dev.lapysh.in.model.PlayerGameData;
+import dev.lapysh.in.repository.PlayersDataCopier;
+import dev.lapysh.in.repository.PlayersDataRepository;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@MicronautTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PlayersDataWriteBenchmarkTest implements TestPropertyProvider {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15.2-alpine")
+        .withDatabaseName("postgres");
+
+    @Inject
+    DSLContext dslContext;
+
+    @Inject
+    PlayersDataRepository repository;
+
+    @Inject
+    PlayersDataCopier copier;
+
+    private final Random random = new Random();
+
+    @Override
+    public @NonNull Map<String, String> getProperties() {
+        if (!postgres.isRunning()) {
+            postgres.start();
+        }
+        return Map.of(
+            "datasources.default.url", postgres.getJdbcUrl(),
+            "datasources.default.username", postgres.getUsername(),
+            "datasources.default.password", postgres.getPassword(),
+            "r2dbc.datasources.r2dbc.url", postgres.getJdbcUrl(),
+            "r2dbc.datasources.r2dbc.port", String.valueOf(postgres.getFirstMappedPort()),
+            "r2dbc.datasources.r2dbc.username", postgres.getUsername(),
+            "r2dbc.datasources.r2dbc.password", postgres.getPassword()
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        Mono.from(dslContext.query("TRUNCATE players_data CASCADE")).block();
+    }
+
+    @Test
+    void testCopyWritesAllColumns() {
+        var line = new PlayerGameData(null, "Nikola Jokić", "Denver Nuggets", "2023-2024", UUID.randomUUID(),
+            31, 13, 9, 2, 1, 3, 4, 36.5f);
+        var before = LocalDateTime.now().minusSeconds(1);
+
+        // The second copy of the line is skipped like on the INSERT path
+        copier.copy(List.of(line, line)).block();
+        copier.copy(List.of(line)).block();
+
+        var rows = Flux.from(dslContext.selectFrom(table("players_data"))).collectList().block();
+        assertNotNull(rows);
+        assertEquals(1, rows.size());
+        var row = rows.getFirst();
+        assertNotNull(row.get(field("id"), UUID.class));
+        assertEquals(line.getPlayerName(), row.get(field("player_name"), String.class));
+        assertEquals(line.getTeamName(), row.get(field("team_name"), String.class));
+        assertEquals(line.getSeasonName(), row.get(field("season_name"), String.class));
+        assertEquals(line.getGameId(), row.get(field("game_id"), UUID.class));
+        assertEquals(line.getPoints(), (int) row.get(field("points"), Integer.class));
+        assertEquals(line.getRebounds(), (int) row.get(field("rebounds"), Integer.class));
+        assertEquals(line.getAssists(), (int) row.get(field("assists"), Integer.class));
+        assertEquals(line.getSteals(), (int) row.get(field("steals"), Integer.class));
+        assertEquals(line.getBlocks(), (int) row.get(field("blocks"), Integer.class));
+        assertEquals(line.getTurnovers(), (int) row.get(field("turnovers"), Integer.class));
+        assertEquals(line.getFouls(), (int) row.get(field("fouls"), Integer.class));
+        assertEquals(line.getMinutesPlayed(), (float) row.get(field("minutes_played"), Float.class));
+        var createdAt = row.get(field("created_at"), LocalDateTime.class);
+        assertNotNull(createdAt);
+        assertTrue(createdAt.isAfter(before));
+    }
+
+    /**
+     * Compares the write paths of {@code players_data}, run with {@code ./gradlew test -Dnba.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "nba.benchmark", matches = "true")
+    void benchmarkWritePaths() {
+        var rows = Integer.getInteger("nba.benchmark.rows", 50_000);
+        var lines = IntStream.range(0, rows).mapToObj(i -> randomLine()).toList();
+
+        // Warm up connections, statement caches and JIT
+        copier.copy(lines.subList(0, 1000)).block();
+        tearDown();
+
+        // One INSERT per line on up to 60 pooled connections, as /save used to do
+        run("single-row INSERT", lines, all -> Flux.fromIterable(all)
+            .flatMap(line -> repository.saveAll(List.of(line)), 60)
+            .then());
+        run("multi-row INSERT x500", lines, all -> Flux.range(0, (all.size() + 499) / 500)
+            .map(batch -> all.subList(batch * 500, Math.min(all.size(), (batch + 1) * 500)))
+            .concatMap(repository::saveAll)
+            .then());
+        run("binary COPY", lines, all -> copier.copy(all).then());
+    }
+
+    private void run(String name, List<PlayerGameData> lines, Function<List<PlayerGameData>, Mono<Void>> write) {
+        var start = System.nanoTime();
+        write.apply(lines).block();
+        var elapsed = System.nanoTime() - start;
+
+        var count = Mono.from(dslContext.selectCount().from(table("players_data"))).block();
+        assertNotNull(count);
+        assertEquals(lines.size(), count.value1());
+        System.out.printf("%-22s %,d rows in %,d ms: %,.0f rows/s%n",
+            name, lines.size(), elapsed / 1_000_000, lines.size() * 1e9 / elapsed);
+        tearDown();
+    }
+
+    private PlayerGameData randomLine() {
+        return new PlayerGameData(
+            null,
+            "Player" + random.nextInt(500),
+            "Team" + random.nextInt(30),
+            "Season" + random.nextInt(10),
+            UUID.randomUUID(),
+            random.nextInt(60),
+            random.nextInt(25),
+            random.nextInt(20),
+            random.nextInt(10),
+            random.nextInt(10),
+            random.nextInt(15),
+            random.nextInt(7),
+            random.nextFloat() * 48
+        );
+    }
+}